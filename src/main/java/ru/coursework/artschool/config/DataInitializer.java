@@ -11,7 +11,11 @@ import ru.coursework.artschool.model.User;
 import ru.coursework.artschool.repository.RoleRepository;
 import ru.coursework.artschool.repository.RoomRepository;
 import ru.coursework.artschool.repository.UserRepository;
+import ru.coursework.artschool.service.GradeAggregateService;
+import ru.coursework.artschool.service.NameSearchIndex;
+import ru.coursework.artschool.service.ScheduleIndex;
 
+import java.time.LocalDate;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -110,6 +114,27 @@ public class DataInitializer {
         };
     }
 
+    // агрегаты оценок для отчётов: на существующей базе при первом запуске считаем с нуля
+    @Bean
+    public CommandLineRunner initGradeAggregates(GradeAggregateService gradeAggregateService) {
+        return args -> gradeAggregateService.rebuildIfEmpty();
+    }
+
+    // индекс расписания: ближайшие недели загружаем сразу, остальные дни — по обращению
+    @Bean
+    public CommandLineRunner warmScheduleIndex(ScheduleIndex scheduleIndex) {
+        return args -> {
+            LocalDate today = LocalDate.now();
+            scheduleIndex.warm(today.minusWeeks(1), today.plusWeeks(8));
+        };
+    }
+
+    // подсказки поиска по именам и названиям
+    @Bean
+    public CommandLineRunner buildNameSearchIndex(NameSearchIndex nameSearchIndex) {
+        return args -> nameSearchIndex.rebuildAll();
+    }
+
     private Role ensureRole(RoleRepository roleRepository, String name) {
         return roleRepository.findByName(name)
                 .orElseGet(() -> roleRepository.save(new Role(name)));
@@ -0,0 +1,121 @@
+package ru.coursework.artschool.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import ru.coursework.artschool.service.SchedulePageCache;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Set;
+
+// Расписание на день для гостей: отдаёт готовую страницу из SchedulePageCache
+// со строгим ETag и Last-Modified, на условный запрос отвечает 304.
+//
+// Фильтр стоит после цепочки Spring Security (порядок по умолчанию), поэтому
+// пользователь уже известен. Вошедшим пользователям страница рисуется как обычно:
+// на ней есть кнопки администратора и меню по ролям.
+@Component
+public class SchedulePageCacheFilter extends OncePerRequestFilter {
+
+    private static final String PATH = "/lessons";
+    private static final Set<String> KNOWN_PARAMS = Set.of("date", "view", "scope", "resourceId");
+
+    // прокси может хранить страницу, но каждый раз сверяет её с сервером;
+    // по Cookie отличаются гости и вошедшие пользователи
+    private static final String CACHE_CONTROL = "public, no-cache";
+
+    private final SchedulePageCache pageCache;
+
+    public SchedulePageCacheFilter(SchedulePageCache pageCache) {
+        this.pageCache = pageCache;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"GET".equals(request.getMethod())
+                || !PATH.equals(request.getRequestURI().substring(request.getContextPath().length()));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+
+        LocalDate date = cacheableDate(request);
+        if (date == null || !isAnonymous()) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        SchedulePageCache.Page page = pageCache.get(date);
+        if (page == null) {
+            long generation = pageCache.currentGeneration();
+            ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+            chain.doFilter(request, wrapper);
+
+            // страница с новой сессией могла получить ссылки с jsessionid — такую не храним
+            if (wrapper.getStatus() != HttpServletResponse.SC_OK
+                    || !isHtml(wrapper.getContentType())
+                    || wrapper.containsHeader(HttpHeaders.SET_COOKIE)) {
+                wrapper.copyBodyToResponse();
+                return;
+            }
+            page = pageCache.put(date, wrapper.getContentAsByteArray(), wrapper.getContentType(), generation);
+            wrapper.resetBuffer();
+        }
+
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.COOKIE);
+        if (new ServletWebRequest(request, response).checkNotModified(page.getEtag(), page.getLastModified())) {
+            return;
+        }
+        response.setContentType(page.getContentType());
+        response.setContentLength(page.getBody().length);
+        response.getOutputStream().write(page.getBody());
+    }
+
+    // Дата, если запрошен вид «день» по всему расписанию; иначе null
+    private static LocalDate cacheableDate(HttpServletRequest request) {
+        if (!KNOWN_PARAMS.containsAll(request.getParameterMap().keySet())) {
+            return null;
+        }
+        String view = request.getParameter("view");
+        String scope = request.getParameter("scope");
+        String resourceId = request.getParameter("resourceId");
+        if ((view != null && !view.equals("DAY"))
+                || (scope != null && !scope.equals("ALL"))
+                || (resourceId != null && !resourceId.isEmpty())) {
+            return null;
+        }
+
+        String date = request.getParameter("date");
+        if (date == null || date.isEmpty()) {
+            return LocalDate.now();
+        }
+        try {
+            return LocalDate.parse(date);
+        } catch (DateTimeParseException ex) {
+            return null;
+        }
+    }
+
+    private static boolean isAnonymous() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        return auth == null || auth instanceof AnonymousAuthenticationToken;
+    }
+
+    private static boolean isHtml(String contentType) {
+        return contentType != null && MediaType.TEXT_HTML.isCompatibleWith(MediaType.parseMediaType(contentType));
+    }
+}
@@ -23,7 +23,7 @@ public class SecurityConfig {
                                 "/", "/about",
                                 "/teachers", "/teachers/**",
                                 "/exhibitions", "/exhibitions/**",
-                                "/lessons",
+                                "/lessons", "/lessons/feed/**",
                                 "/login",
                                 "/images/**"
                         ).permitAll()
@@ -42,14 +42,17 @@ public class SecurityConfig {
                         // ученики: просмотр Teacher + Admin
                         .requestMatchers("/students/**").hasAnyRole("TEACHER", "ADMIN")
 
+                        // поиск по данным школы (заметки, биографии) — Teacher + Admin
+                        .requestMatchers("/search", "/search/**").hasAnyRole("TEACHER", "ADMIN")
+
                         // журнал — только Teacher
                         .requestMatchers("/journal/**", "/grades/**").hasAnyRole("TEACHER", "ADMIN")
 
                         // дисциплины, группы, отчёты — только Admin
                         .requestMatchers("/subjects/**", "/groups/**", "/reports/**").hasRole("ADMIN")
 
-                        // админка — только Admin
-                        .requestMatchers("/admin/**").hasRole("ADMIN")
+                        // админка и генерация расписания — только Admin
+                        .requestMatchers("/admin/**", "/timetable/**").hasRole("ADMIN")
 
                         // всё остальное — только после логина
                         .anyRequest().authenticated()
@@ -0,0 +1,71 @@
+package ru.coursework.artschool.controller;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import ru.coursework.artschool.service.CalendarFeedService;
+
+import java.io.IOException;
+import java.time.LocalDate;
+
+// Подписка на расписание из календарных приложений (доступна всем):
+// /lessons/feed/group/5.ics, /lessons/feed/teacher/3.ics, /lessons/feed/room/2.ics
+@Controller
+@RequestMapping("/lessons/feed")
+public class CalendarFeedController {
+
+    // по умолчанию — месяц назад и полгода вперёд
+    private static final int DEFAULT_DAYS_BACK = 31;
+    private static final int DEFAULT_DAYS_AHEAD = 183;
+
+    private final CalendarFeedService calendarFeedService;
+
+    public CalendarFeedController(CalendarFeedService calendarFeedService) {
+        this.calendarFeedService = calendarFeedService;
+    }
+
+    @GetMapping("/{kind}/{id}.ics")
+    public void feed(@PathVariable String kind,
+                     @PathVariable Long id,
+                     @RequestParam(name = "from", required = false)
+                     @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate from,
+                     @RequestParam(name = "to", required = false)
+                     @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate to,
+                     ServletWebRequest webRequest,
+                     HttpServletResponse response) throws IOException {
+
+        CalendarFeedService.FeedKind feedKind = switch (kind) {
+            case "group" -> CalendarFeedService.FeedKind.GROUP;
+            case "teacher" -> CalendarFeedService.FeedKind.TEACHER;
+            case "room" -> CalendarFeedService.FeedKind.ROOM;
+            default -> throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        };
+        CalendarFeedService.Feed feed = calendarFeedService.findFeed(feedKind, id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+
+        LocalDate today = LocalDate.now();
+        LocalDate effectiveFrom = (from != null) ? from : today.minusDays(DEFAULT_DAYS_BACK);
+        LocalDate effectiveTo = (to != null) ? to : today.plusDays(DEFAULT_DAYS_AHEAD);
+        if (effectiveTo.isBefore(effectiveFrom)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Дата окончания раньше даты начала");
+        }
+
+        // клиент может хранить ленту, но перед использованием сверяет версию
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "public, no-cache");
+        if (webRequest.checkNotModified(feed.etagFor(effectiveFrom, effectiveTo), feed.getLastModified())) {
+            return;
+        }
+
+        response.setContentType("text/calendar;charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + kind + "-" + id + ".ics\"");
+        calendarFeedService.writeFeed(feedKind, id, effectiveFrom, effectiveTo, feed, response.getWriter());
+    }
+}
@@ -9,7 +9,9 @@ import org.springframework.web.bind.annotation.*;
 import ru.coursework.artschool.model.*;
 import ru.coursework.artschool.service.*;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Controller
 @RequestMapping("/grades")
@@ -187,4 +189,75 @@ public class GradeController {
 
         return "redirect:/journal?groupId=" + groupId + "&subjectId=" + subjectId;
     }
+
+    // ===== Массовое выставление оценок за занятие (столбец журнала) =====
+
+    @GetMapping("/batch")
+    public String batchForm(@RequestParam Long groupId,
+                            @RequestParam Long subjectId,
+                            @RequestParam Long lessonId,
+                            Model model) {
+
+        Group group = groupService.findById(groupId)
+                .orElseThrow(() -> new IllegalArgumentException("Группа не найдена"));
+        Subject subject = subjectService.findById(subjectId)
+                .orElseThrow(() -> new IllegalArgumentException("Дисциплина не найдена"));
+        Lesson lesson = lessonService.findById(lessonId)
+                .orElseThrow(() -> new IllegalArgumentException("Занятие не найдено"));
+        if (!lesson.getGroup().getId().equals(groupId) || !lesson.getSubject().getId().equals(subjectId)) {
+            throw new IllegalArgumentException("Занятие не относится к выбранной группе и дисциплине");
+        }
+
+        GradeBatchForm form = gradeService.prepareBatchForm(
+                groupId, subjectId, lessonId, studentService.search(null, groupId));
+
+        model.addAttribute("title", "Оценки за занятие");
+        model.addAttribute("batchForm", form);
+        model.addAttribute("group", group);
+        model.addAttribute("subject", subject);
+        model.addAttribute("lesson", lesson);
+
+        return "grade-batch-form";
+    }
+
+    @PostMapping("/batch")
+    public String saveBatch(@Valid @ModelAttribute("batchForm") GradeBatchForm form,
+                            BindingResult bindingResult,
+                            Model model) {
+
+        Group group = groupService.findById(form.getGroupId())
+                .orElseThrow(() -> new IllegalArgumentException("Группа не найдена"));
+        Subject subject = subjectService.findById(form.getSubjectId())
+                .orElseThrow(() -> new IllegalArgumentException("Дисциплина не найдена"));
+
+        if (!bindingResult.hasErrors()) {
+            GradeService.BatchResult result =
+                    gradeService.saveBatch(form.getGroupId(), form.getSubjectId(), form.getEntries());
+
+            if (!result.hasErrors()) {
+                return "redirect:/journal?groupId=" + form.getGroupId() +
+                        "&subjectId=" + form.getSubjectId();
+            }
+            model.addAttribute("batchResult", result);
+        }
+
+        // имена учеников в форму не отправляются — восстанавливаем для повторного показа
+        Map<Long, String> names = new HashMap<>();
+        for (Student s : studentService.search(null, form.getGroupId())) {
+            names.put(s.getId(), s.getFullName());
+        }
+        for (GradeBatchForm.Entry e : form.getEntries()) {
+            e.setStudentName(names.get(e.getStudentId()));
+        }
+
+        model.addAttribute("title", "Оценки за занятие");
+        model.addAttribute("group", group);
+        model.addAttribute("subject", subject);
+        if (form.getLessonId() != null) {
+            lessonService.findById(form.getLessonId())
+                    .ifPresent(l -> model.addAttribute("lesson", l));
+        }
+
+        return "grade-batch-form";
+    }
 }
@@ -9,6 +9,7 @@ import org.springframework.web.bind.annotation.*;
 import ru.coursework.artschool.model.Group;
 import ru.coursework.artschool.model.GroupForm;
 import ru.coursework.artschool.service.GroupService;
+import ru.coursework.artschool.service.KeysetPage;
 import ru.coursework.artschool.service.StudentService;
 import ru.coursework.artschool.service.TeacherService;
 
@@ -39,10 +40,15 @@ public class GroupController {
     // список групп + поиск
     @GetMapping
     public String listGroups(@RequestParam(name = "q", required = false) String query,
+                             @RequestParam(name = "cursor", required = false) String cursor,
+                             @RequestParam(name = "size", required = false) Integer size,
                              Model model) {
-        List<Group> groups = groupService.search(query);
+        int pageSize = KeysetPage.clampSize(size);
+        KeysetPage<Group> page = groupService.searchPage(query, KeysetPage.usableCursor(cursor), pageSize);
         model.addAttribute("title", "Группы");
-        model.addAttribute("groups", groups);
+        model.addAttribute("groups", page.getItems());
+        model.addAttribute("page", page);
+        model.addAttribute("size", pageSize);
         model.addAttribute("query", query);
         return "groups";
     }
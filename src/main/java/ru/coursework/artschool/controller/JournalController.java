@@ -20,15 +20,18 @@ public class JournalController {
     private final SubjectService subjectService;
     private final StudentService studentService;
     private final GradeService gradeService;
+    private final GradeAggregateService gradeAggregateService;
 
     public JournalController(GroupService groupService,
                              SubjectService subjectService,
                              StudentService studentService,
-                             GradeService gradeService) {
+                             GradeService gradeService,
+                             GradeAggregateService gradeAggregateService) {
         this.groupService = groupService;
         this.subjectService = subjectService;
         this.studentService = studentService;
         this.gradeService = gradeService;
+        this.gradeAggregateService = gradeAggregateService;
     }
 
     @GetMapping
@@ -72,6 +75,12 @@ public class JournalController {
         model.addAttribute("journalStudents", data.getStudents());
         model.addAttribute("journalData", data);
 
+        // средний балл группы по дисциплине за всё время — готовая строка агрегата
+        model.addAttribute("groupSubjectAverage",
+                gradeAggregateService.getGroupSubjectTotal(groupId, subjectId)
+                        .map(GradeAggregate::getAverage)
+                        .orElse(null));
+
         return "journal";
     }
 }
@@ -2,17 +2,23 @@ package ru.coursework.artschool.controller;
 
 import jakarta.validation.Valid;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 import ru.coursework.artschool.model.Lesson;
+import ru.coursework.artschool.model.LessonDraft;
 import ru.coursework.artschool.model.LessonForm;
+import ru.coursework.artschool.model.LessonSeriesForm;
 import ru.coursework.artschool.service.*;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.List;
 
 @Controller
@@ -24,33 +30,57 @@ public class LessonController {
     private final GroupService groupService;
     private final TeacherService teacherService;
     private final RoomService roomService;
+    private final FreeSlotFinder freeSlotFinder;
+    private final DraftConflictChecker draftConflictChecker;
 
     public LessonController(LessonService lessonService,
                             SubjectService subjectService,
                             GroupService groupService,
                             TeacherService teacherService,
-                            RoomService roomService) {
+                            RoomService roomService,
+                            FreeSlotFinder freeSlotFinder,
+                            DraftConflictChecker draftConflictChecker) {
         this.lessonService = lessonService;
         this.subjectService = subjectService;
         this.groupService = groupService;
         this.teacherService = teacherService;
         this.roomService = roomService;
+        this.freeSlotFinder = freeSlotFinder;
+        this.draftConflictChecker = draftConflictChecker;
     }
 
-    // Просмотр расписания на день (доступен всем)
+    // Просмотр расписания (доступен всем): день, неделя или месяц,
+    // всё расписание или одной группы / преподавателя / аудитории
     @GetMapping
     public String listLessons(
             @RequestParam(name = "date", required = false)
             @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate date,
+            @RequestParam(name = "view", defaultValue = "DAY") LessonService.CalendarMode view,
+            @RequestParam(name = "scope", defaultValue = "ALL") LessonService.ScheduleScope scope,
+            @RequestParam(name = "resourceId", required = false) Long resourceId,
             Model model) {
 
         LocalDate effectiveDate = (date != null) ? date : LocalDate.now();
 
-        List<Lesson> lessons = lessonService.findByDate(effectiveDate);
+        LessonService.CalendarView calendar =
+                lessonService.getCalendar(view, effectiveDate, scope, resourceId);
 
         model.addAttribute("title", "Расписание занятий");
-        model.addAttribute("lessons", lessons);
+        model.addAttribute("calendar", calendar);
+        model.addAttribute("lessons", calendar.lessonsOn(effectiveDate));
         model.addAttribute("date", effectiveDate);
+        model.addAttribute("view", view);
+        model.addAttribute("scope", scope);
+        model.addAttribute("resourceId", resourceId);
+        model.addAttribute("weekdayNames", LessonService.WEEKDAY_NAMES);
+
+        // списки для выбора ресурса
+        switch (scope) {
+            case GROUP -> model.addAttribute("resources", groupService.findAll());
+            case TEACHER -> model.addAttribute("resources", teacherService.findAll());
+            case ROOM -> model.addAttribute("resources", roomService.findAll());
+            default -> model.addAttribute("resources", List.of());
+        }
 
         return "lessons";
     }
@@ -62,15 +92,29 @@ public class LessonController {
     public String newLessonForm(
             @RequestParam(name = "date", required = false)
             @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate date,
+            @RequestParam(name = "startTime", required = false)
+            @DateTimeFormat(pattern = "HH:mm") LocalTime startTime,
+            @RequestParam(name = "groupId", required = false) Long groupId,
+            @RequestParam(name = "teacherId", required = false) Long teacherId,
+            @RequestParam(name = "roomId", required = false) Long roomId,
             Model model) {
 
         LessonForm form = new LessonForm();
         form.setDate(date != null ? date : LocalDate.now());
+        // предзаполнение из подбора свободного времени
+        if (startTime != null) {
+            form.setStartTime(startTime);
+            form.setEndTime(startTime.plus(LessonService.LESSON_DURATION));
+        }
+        form.setGroupId(groupId);
+        form.setTeacherId(teacherId);
+        form.setRoomId(roomId);
 
         model.addAttribute("title", "Новое занятие");
         model.addAttribute("lessonForm", form);
         model.addAttribute("isEdit", false);
         fillReferenceData(model);
+        addStartTimeOption(model, startTime);
 
         return "lesson-form";
     }
@@ -174,6 +218,121 @@ public class LessonController {
         return "redirect:/lessons?date=" + form.getDate();
     }
 
+    // ======== СЕРИЯ ЗАНЯТИЙ (ADMIN) ========
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/series/new")
+    public String newSeriesForm(Model model) {
+        LessonSeriesForm form = new LessonSeriesForm();
+        form.setStartDate(LocalDate.now());
+        form.setEndDate(LocalDate.now().plusMonths(4));
+
+        model.addAttribute("title", "Серия занятий");
+        model.addAttribute("seriesForm", form);
+        fillReferenceData(model);
+
+        return "lesson-series-form";
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/series")
+    public String createSeries(@Valid @ModelAttribute("seriesForm") LessonSeriesForm form,
+                               BindingResult bindingResult,
+                               Model model) {
+
+        model.addAttribute("title", "Серия занятий");
+
+        if (!bindingResult.hasErrors()) {
+            try {
+                LessonService.SeriesResult result = lessonService.createSeries(form);
+                if (result.getConflicts().isEmpty()) {
+                    return "redirect:/lessons?date=" + form.getStartDate();
+                }
+                // часть занятий создана — показываем, какие даты не удалось занять
+                model.addAttribute("seriesResult", result);
+            } catch (IllegalArgumentException ex) {
+                bindingResult.reject("lesson.error", ex.getMessage());
+            }
+        }
+
+        fillReferenceData(model);
+        return "lesson-series-form";
+    }
+
+    // ======== ПОДБОР СВОБОДНОГО ВРЕМЕНИ (ADMIN) ========
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/free-slots")
+    public String freeSlots(@RequestParam(name = "groupId", required = false) Long groupId,
+                            @RequestParam(name = "teacherId", required = false) Long teacherId,
+                            @RequestParam(name = "roomId", required = false) Long roomId,
+                            @RequestParam(name = "start", required = false)
+                            @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate start,
+                            @RequestParam(name = "end", required = false)
+                            @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate end,
+                            Model model) {
+
+        LocalDate effectiveStart = (start != null) ? start : LocalDate.now();
+        LocalDate effectiveEnd = (end != null) ? end : effectiveStart.plusDays(13);
+
+        model.addAttribute("title", "Свободное время");
+        model.addAttribute("groupId", groupId);
+        model.addAttribute("teacherId", teacherId);
+        model.addAttribute("roomId", roomId);
+        model.addAttribute("start", effectiveStart);
+        model.addAttribute("end", effectiveEnd);
+        fillReferenceData(model);
+
+        if (groupId != null && teacherId != null) {
+            try {
+                model.addAttribute("slots", freeSlotFinder.findFreeSlots(
+                        groupId, teacherId, roomId, effectiveStart, effectiveEnd));
+            } catch (IllegalArgumentException ex) {
+                model.addAttribute("error", ex.getMessage());
+            }
+        }
+
+        return "lesson-free-slots";
+    }
+
+    // то же в JSON (для форм и внешних клиентов)
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping(value = "/free-slots", produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public List<FreeSlotFinder.FreeSlot> freeSlotsJson(
+            @RequestParam(name = "groupId") Long groupId,
+            @RequestParam(name = "teacherId") Long teacherId,
+            @RequestParam(name = "roomId", required = false) Long roomId,
+            @RequestParam(name = "start")
+            @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate start,
+            @RequestParam(name = "end")
+            @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate end) {
+
+        // неверный период (конец раньше начала, больше допустимого) — ошибка запроса, а не сервера
+        try {
+            return freeSlotFinder.findFreeSlots(groupId, teacherId, roomId, start, end);
+        } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage(), ex);
+        }
+    }
+
+    // ======== ПРОВЕРКА ЧЕРНОВИКА «ЧТО ЕСЛИ» (ADMIN, JSON) ========
+
+    // Принимает список предлагаемых занятий, возвращает граф конфликтов; в БД ничего не пишет
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping(value = "/what-if",
+            consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public DraftConflictChecker.DraftCheckResult whatIf(@RequestBody List<LessonDraft> drafts) {
+        // повторяющиеся ключи и слишком большой черновик — ошибка запроса
+        try {
+            return draftConflictChecker.check(drafts);
+        } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage(), ex);
+        }
+    }
+
     // ======== УДАЛЕНИЕ ЗАНЯТИЯ (ADMIN) ========
 
     @PreAuthorize("hasRole('ADMIN')")
@@ -188,11 +347,24 @@ public class LessonController {
         return "redirect:/lessons?date=" + redirectDate;
     }
 
+    // время из подбора свободного времени может не совпадать со стандартными началами
+    @SuppressWarnings("unchecked")
+    private void addStartTimeOption(Model model, LocalTime startTime) {
+        List<LocalTime> times = (List<LocalTime>) model.getAttribute("defaultStartTimes");
+        if (startTime != null && times != null && !times.contains(startTime)) {
+            List<LocalTime> merged = new ArrayList<>(times);
+            merged.add(startTime);
+            merged.sort(null);
+            model.addAttribute("defaultStartTimes", merged);
+        }
+    }
+
     private void fillReferenceData(Model model) {
         model.addAttribute("subjects", subjectService.findAll());
         model.addAttribute("groups", groupService.findAll());
         model.addAttribute("teachers", teacherService.findAll());
         model.addAttribute("rooms", roomService.findAll());
+        model.addAttribute("weekdays", LessonService.WEEKDAY_NAMES);
 
         // фиксированные стартовые времена (можно потом вынести в конфиг)
         model.addAttribute("defaultStartTimes", List.of(
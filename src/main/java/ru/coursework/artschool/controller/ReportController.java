@@ -4,59 +4,55 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import ru.coursework.artschool.service.GradeAggregateService;
+import ru.coursework.artschool.service.ReportCache;
 import ru.coursework.artschool.service.ReportService;
 
-import java.util.List;
 @Controller
 @RequestMapping("/reports")
 @PreAuthorize("hasRole('ADMIN')")
 public class ReportController {
 
     private final ReportService reportService;
+    private final GradeAggregateService gradeAggregateService;
+    private final ReportCache reportCache;
 
-    public ReportController(ReportService reportService) {
+    public ReportController(ReportService reportService,
+                            GradeAggregateService gradeAggregateService,
+                            ReportCache reportCache) {
         this.reportService = reportService;
+        this.gradeAggregateService = gradeAggregateService;
+        this.reportCache = reportCache;
     }
 
     @GetMapping
     public String reports(Model model) {
-        var overview = reportService.getOverviewStats();
-        var groupStats = reportService.getGroupStudentStats();
-        var subjectStats = reportService.getSubjectAverageStats();
+        ReportService.ReportSnapshot snapshot =
+                reportCache.get(ReportCache.SNAPSHOT_KEY, reportService::getReportSnapshot);
 
         model.addAttribute("title", "Отчёты и статистика");
-        model.addAttribute("overview", overview);
-        model.addAttribute("groupStats", groupStats);
-        model.addAttribute("subjectStats", subjectStats);
+        model.addAttribute("overview", snapshot.getOverview());
+        model.addAttribute("groupStats", snapshot.getGroupStats());
+        model.addAttribute("subjectStats", snapshot.getSubjectStats());
 
         // данные для графиков
-        List<String> groupLabels = groupStats.stream()
-                .map(s -> s.getGroup().getCode())
-                .toList();
+        model.addAttribute("groupLabels", snapshot.getGroupLabels());
+        model.addAttribute("groupStudentCounts", snapshot.getGroupStudentCounts());
+        model.addAttribute("groupAvgGrades", snapshot.getGroupAvgGrades());
+        model.addAttribute("subjectLabels", snapshot.getSubjectLabels());
+        model.addAttribute("subjectAvgGrades", snapshot.getSubjectAvgGrades());
 
-        List<Long> groupStudentCounts = groupStats.stream()
-                .map(ru.coursework.artschool.service.ReportService.GroupStudentStats::getStudentCount)
-                .toList();
-
-        List<Double> groupAvgGrades = groupStats.stream()
-                .map(s -> s.getAverageGrade() == null ? 0.0 : s.getAverageGrade())
-                .toList();
-
-        List<String> subjectLabels = subjectStats.stream()
-                .map(s -> s.getSubject().getCode())
-                .toList();
-
-        List<Double> subjectAvgGrades = subjectStats.stream()
-                .map(s -> s.getAverageGrade() == null ? 0.0 : s.getAverageGrade())
-                .toList();
-
-        model.addAttribute("groupLabels", groupLabels);
-        model.addAttribute("groupStudentCounts", groupStudentCounts);
-        model.addAttribute("groupAvgGrades", groupAvgGrades);
-        model.addAttribute("subjectLabels", subjectLabels);
-        model.addAttribute("subjectAvgGrades", subjectAvgGrades);
+        model.addAttribute("cacheStats", reportCache.getStats());
 
         return "reports";
     }
+
+    // пересчёт накопительных агрегатов оценок с нуля (если средние разошлись с данными)
+    @PostMapping("/aggregates/rebuild")
+    public String rebuildAggregates() {
+        gradeAggregateService.rebuild();
+        return "redirect:/reports";
+    }
 }
@@ -0,0 +1,58 @@
+package ru.coursework.artschool.controller;
+
+import org.springframework.http.MediaType;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import ru.coursework.artschool.service.FullTextSearchService;
+import ru.coursework.artschool.service.GlobalSearchService;
+
+@Controller
+@RequestMapping("/search")
+@PreAuthorize("hasAnyRole('TEACHER','ADMIN')")
+public class SearchController {
+
+    private final FullTextSearchService fullTextSearchService;
+    private final GlobalSearchService globalSearchService;
+
+    public SearchController(FullTextSearchService fullTextSearchService,
+                            GlobalSearchService globalSearchService) {
+        this.fullTextSearchService = fullTextSearchService;
+        this.globalSearchService = globalSearchService;
+    }
+
+    // Общий поиск по ученикам, преподавателям, группам, дисциплинам и аудиториям
+    @GetMapping
+    public String search(@RequestParam(name = "q", required = false) String query,
+                         @RequestParam(name = "limit", required = false) Integer limit,
+                         Model model) {
+        model.addAttribute("title", "Поиск");
+        model.addAttribute("query", query);
+        model.addAttribute("result", globalSearchService.search(query, limit));
+        return "search";
+    }
+
+    // То же в JSON (Accept: application/json); partial = true — часть источников не ответила
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public GlobalSearchService.GlobalSearchResult searchJson(
+            @RequestParam(name = "q", required = false) String query,
+            @RequestParam(name = "limit", required = false) Integer limit) {
+        return globalSearchService.search(query, limit);
+    }
+
+    // Поиск по тексту заметок, биографий и описаний
+    @GetMapping("/text")
+    public String textSearch(@RequestParam(name = "q", required = false) String query,
+                             @RequestParam(name = "limit", required = false) Integer limit,
+                             Model model) {
+        model.addAttribute("title", "Поиск по тексту");
+        model.addAttribute("query", query);
+        model.addAttribute("hits", fullTextSearchService.search(query, limit));
+        return "search-text";
+    }
+}
@@ -1,6 +1,7 @@
 package ru.coursework.artschool.controller;
 
 import jakarta.validation.Valid;
+import org.springframework.http.MediaType;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -9,6 +10,8 @@ import org.springframework.web.bind.annotation.*;
 import ru.coursework.artschool.model.Student;
 import ru.coursework.artschool.model.StudentForm;
 import ru.coursework.artschool.service.GroupService;
+import ru.coursework.artschool.service.KeysetPage;
+import ru.coursework.artschool.service.NameSearchIndex;
 import ru.coursework.artschool.service.StudentService;
 import ru.coursework.artschool.service.GradeService;
 
@@ -21,13 +24,16 @@ public class StudentController {
     private final StudentService studentService;
     private final GroupService groupService;
     private final GradeService gradeService;
+    private final NameSearchIndex nameSearchIndex;
 
     public StudentController(StudentService studentService,
                              GroupService groupService,
-                             GradeService gradeService) {
+                             GradeService gradeService,
+                             NameSearchIndex nameSearchIndex) {
         this.studentService = studentService;
         this.groupService = groupService;
         this.gradeService = gradeService;
+        this.nameSearchIndex = nameSearchIndex;
     }
 
 
@@ -36,11 +42,16 @@ public class StudentController {
     @GetMapping
     public String listStudents(@RequestParam(name = "q", required = false) String query,
                                @RequestParam(name = "groupId", required = false) Long groupId,
+                               @RequestParam(name = "cursor", required = false) String cursor,
+                               @RequestParam(name = "size", required = false) Integer size,
                                Model model) {
-        List<Student> students = studentService.search(query, groupId);
+        int pageSize = KeysetPage.clampSize(size);
+        KeysetPage<Student> page = studentService.searchPage(query, groupId, KeysetPage.usableCursor(cursor), pageSize);
 
         model.addAttribute("title", "Ученики");
-        model.addAttribute("students", students);
+        model.addAttribute("students", page.getItems());
+        model.addAttribute("page", page);
+        model.addAttribute("size", pageSize);
         model.addAttribute("query", query);
         model.addAttribute("groupId", groupId);
         model.addAttribute("groups", groupService.findAll());
@@ -48,6 +59,14 @@ public class StudentController {
         return "students";
     }
 
+    // Подсказки при вводе в поиске (из памяти, без запроса к БД)
+    @GetMapping(value = "/suggest", produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public List<NameSearchIndex.Hit> suggest(@RequestParam(name = "q") String query,
+                                             @RequestParam(name = "limit", defaultValue = "10") int limit) {
+        return nameSearchIndex.search(NameSearchIndex.Kind.STUDENT, query, limit);
+    }
+
     // Карточка ученика — Teacher и Admin
     @GetMapping("/{id}")
     public String studentDetails(@PathVariable Long id, Model model) {
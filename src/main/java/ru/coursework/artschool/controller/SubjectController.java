@@ -6,6 +6,7 @@ import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
 import ru.coursework.artschool.model.Subject;
+import ru.coursework.artschool.service.KeysetPage;
 import ru.coursework.artschool.service.SubjectService;
 
 import java.util.List;
@@ -23,10 +24,15 @@ public class SubjectController {
     // Список дисциплин + поиск
     @GetMapping
     public String listSubjects(@RequestParam(name = "q", required = false) String query,
+                               @RequestParam(name = "cursor", required = false) String cursor,
+                               @RequestParam(name = "size", required = false) Integer size,
                                Model model) {
-        List<Subject> subjects = subjectService.search(query);
+        int pageSize = KeysetPage.clampSize(size);
+        KeysetPage<Subject> page = subjectService.searchPage(query, KeysetPage.usableCursor(cursor), pageSize);
         model.addAttribute("title", "Дисциплины");
-        model.addAttribute("subjects", subjects);
+        model.addAttribute("subjects", page.getItems());
+        model.addAttribute("page", page);
+        model.addAttribute("size", pageSize);
         model.addAttribute("query", query);
         return "subjects";
     }
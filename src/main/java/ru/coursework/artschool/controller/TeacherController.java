@@ -1,12 +1,15 @@
 package ru.coursework.artschool.controller;
 
 import jakarta.validation.Valid;
+import org.springframework.http.MediaType;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
 import ru.coursework.artschool.model.Teacher;
+import ru.coursework.artschool.service.KeysetPage;
+import ru.coursework.artschool.service.NameSearchIndex;
 import ru.coursework.artschool.service.TeacherService;
 
 import java.util.List;
@@ -21,25 +24,41 @@ public class TeacherController {
 
     private final TeacherService teacherService;
     private final SubjectService subjectService;
+    private final NameSearchIndex nameSearchIndex;
 
     public TeacherController(TeacherService teacherService,
-                             SubjectService subjectService) {
+                             SubjectService subjectService,
+                             NameSearchIndex nameSearchIndex) {
         this.teacherService = teacherService;
         this.subjectService = subjectService;
+        this.nameSearchIndex = nameSearchIndex;
     }
 
 
     // Список преподавателей + поиск (доступен всем)
     @GetMapping
     public String listTeachers(@RequestParam(name = "q", required = false) String query,
+                               @RequestParam(name = "cursor", required = false) String cursor,
+                               @RequestParam(name = "size", required = false) Integer size,
                                Model model) {
-        List<Teacher> teachers = teacherService.search(query);
+        int pageSize = KeysetPage.clampSize(size);
+        KeysetPage<Teacher> page = teacherService.searchPage(query, KeysetPage.usableCursor(cursor), pageSize);
         model.addAttribute("title", "Преподаватели");
-        model.addAttribute("teachers", teachers);
+        model.addAttribute("teachers", page.getItems());
+        model.addAttribute("page", page);
+        model.addAttribute("size", pageSize);
         model.addAttribute("query", query);
         return "teachers";
     }
 
+    // Подсказки при вводе в поиске: ФИО и специализация (из памяти, без запроса к БД)
+    @GetMapping(value = "/suggest", produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public List<NameSearchIndex.Hit> suggest(@RequestParam(name = "q") String query,
+                                             @RequestParam(name = "limit", defaultValue = "10") int limit) {
+        return nameSearchIndex.search(NameSearchIndex.Kind.TEACHER, query, limit);
+    }
+
     // Карточка преподавателя (доступна всем)
     @GetMapping("/{id}")
     public String teacherDetails(@PathVariable Long id, Model model) {
@@ -0,0 +1,101 @@
+package ru.coursework.artschool.controller;
+
+import jakarta.servlet.http.HttpSession;
+import jakarta.validation.Valid;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.validation.BindingResult;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+import ru.coursework.artschool.model.TimetableForm;
+import ru.coursework.artschool.service.GroupService;
+import ru.coursework.artschool.service.LessonService;
+import ru.coursework.artschool.service.SubjectService;
+import ru.coursework.artschool.service.TimetableGenerator;
+
+import java.time.Duration;
+import java.time.LocalDate;
+
+// Автоматическое составление расписания (только администратор).
+// Сгенерированный вариант хранится в сессии до сохранения или новой генерации.
+@Controller
+@RequestMapping("/timetable")
+@PreAuthorize("hasRole('ADMIN')")
+public class TimetableController {
+
+    private static final String DRAFT_ATTRIBUTE = "timetableDraft";
+
+    private final TimetableGenerator timetableGenerator;
+    private final GroupService groupService;
+    private final SubjectService subjectService;
+
+    public TimetableController(TimetableGenerator timetableGenerator,
+                               GroupService groupService,
+                               SubjectService subjectService) {
+        this.timetableGenerator = timetableGenerator;
+        this.groupService = groupService;
+        this.subjectService = subjectService;
+    }
+
+    @GetMapping
+    public String form(Model model, HttpSession session) {
+        TimetableForm form = new TimetableForm();
+        form.setStartDate(LocalDate.now());
+        form.setEndDate(LocalDate.now().plusMonths(4));
+
+        model.addAttribute("timetableForm", form);
+        model.addAttribute("timetable", session.getAttribute(DRAFT_ATTRIBUTE));
+        fillReferenceData(model);
+        return "timetable";
+    }
+
+    @PostMapping("/generate")
+    public String generate(@Valid @ModelAttribute("timetableForm") TimetableForm form,
+                           BindingResult bindingResult,
+                           Model model,
+                           HttpSession session) {
+
+        if (!bindingResult.hasErrors()) {
+            try {
+                TimetableGenerator.Timetable timetable = timetableGenerator.generate(
+                        form.getStartDate(), form.getEndDate(), form.getWeekdays(),
+                        form.getGroupIds(), form.getSubjectIds(),
+                        Duration.ofSeconds(form.getBudgetSeconds()));
+                session.setAttribute(DRAFT_ATTRIBUTE, timetable);
+                model.addAttribute("timetable", timetable);
+            } catch (IllegalArgumentException ex) {
+                bindingResult.reject("timetable.error", ex.getMessage());
+            }
+        }
+
+        fillReferenceData(model);
+        return "timetable";
+    }
+
+    @PostMapping("/save")
+    public String save(HttpSession session, RedirectAttributes redirectAttributes) {
+        TimetableGenerator.Timetable timetable =
+                (TimetableGenerator.Timetable) session.getAttribute(DRAFT_ATTRIBUTE);
+        if (timetable == null) {
+            return "redirect:/timetable";
+        }
+
+        try {
+            int created = timetableGenerator.save(timetable);
+            session.removeAttribute(DRAFT_ATTRIBUTE);
+            redirectAttributes.addFlashAttribute("message", "Создано занятий: " + created);
+            return "redirect:/lessons?date=" + timetable.getStartDate();
+        } catch (IllegalArgumentException ex) {
+            redirectAttributes.addFlashAttribute("error", ex.getMessage());
+            return "redirect:/timetable";
+        }
+    }
+
+    private void fillReferenceData(Model model) {
+        model.addAttribute("title", "Генерация расписания");
+        model.addAttribute("groups", groupService.findAll());
+        model.addAttribute("subjects", subjectService.findAll());
+        model.addAttribute("weekdays", LessonService.WEEKDAY_NAMES);
+    }
+}
@@ -16,6 +16,10 @@ import java.time.LocalDateTime;
                         name = "uk_grade_student_lesson",
                         columnNames = {"student_id", "lesson_id"}
                 )
+        },
+        indexes = {
+                // оценки за выбранные занятия (уникальный ключ начинается со student_id и не подходит)
+                @Index(name = "idx_grades_lesson_student", columnList = "lesson_id, student_id")
         })
 public class Grade {
 
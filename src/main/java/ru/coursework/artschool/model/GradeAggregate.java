@@ -0,0 +1,83 @@
+package ru.coursework.artschool.model;
+
+import jakarta.persistence.*;
+
+// Накопительные сумма и количество оценок в разрезе группы / предмета / ученика.
+// Поддерживается GradeAggregateService при каждой записи оценки.
+// Неиспользуемые в разрезе ключи хранятся как 0, чтобы уникальный ключ работал без NULL.
+@Entity
+@Table(name = "grade_aggregates",
+        uniqueConstraints = {
+                @UniqueConstraint(
+                        name = "uk_grade_aggregate_key",
+                        columnNames = {"scope", "group_id", "subject_id", "student_id"}
+                )
+        })
+public class GradeAggregate {
+
+    public enum Scope {
+        GROUP,
+        SUBJECT,
+        GROUP_SUBJECT,
+        STUDENT,
+        STUDENT_SUBJECT
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private Scope scope;
+
+    @Column(name = "group_id", nullable = false)
+    private Long groupId;
+
+    @Column(name = "subject_id", nullable = false)
+    private Long subjectId;
+
+    @Column(name = "student_id", nullable = false)
+    private Long studentId;
+
+    @Column(nullable = false)
+    private long gradeSum;
+
+    @Column(nullable = false)
+    private long gradeCount;
+
+    public GradeAggregate() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Scope getScope() {
+        return scope;
+    }
+
+    public Long getGroupId() {
+        return groupId;
+    }
+
+    public Long getSubjectId() {
+        return subjectId;
+    }
+
+    public Long getStudentId() {
+        return studentId;
+    }
+
+    public long getGradeSum() {
+        return gradeSum;
+    }
+
+    public long getGradeCount() {
+        return gradeCount;
+    }
+
+    public Double getAverage() {
+        return gradeCount == 0 ? null : (double) gradeSum / gradeCount;
+    }
+}
@@ -0,0 +1,122 @@
+package ru.coursework.artschool.model;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Массовое выставление оценок по одной группе и дисциплине:
+// столбец журнала (одно занятие) или сразу несколько занятий.
+public class GradeBatchForm {
+
+    @NotNull(message = "Группа обязательна")
+    private Long groupId;
+
+    @NotNull(message = "Дисциплина обязательна")
+    private Long subjectId;
+
+    // занятие, если заполняется один столбец журнала
+    private Long lessonId;
+
+    @Valid
+    private List<Entry> entries = new ArrayList<>();
+
+    public static class Entry {
+
+        private Long studentId;
+        private Long lessonId;
+
+        // пустое значение — ячейку не трогаем
+        @Min(value = 1, message = "Минимальная оценка — 1")
+        @Max(value = 5, message = "Максимальная оценка — 5")
+        private Integer value;
+
+        @Size(max = 1000, message = "Слишком длинный комментарий")
+        private String comment;
+
+        // только для отображения формы
+        private String studentName;
+
+        public Entry() {
+        }
+
+        public Long getStudentId() {
+            return studentId;
+        }
+
+        public void setStudentId(Long studentId) {
+            this.studentId = studentId;
+        }
+
+        public Long getLessonId() {
+            return lessonId;
+        }
+
+        public void setLessonId(Long lessonId) {
+            this.lessonId = lessonId;
+        }
+
+        public Integer getValue() {
+            return value;
+        }
+
+        public void setValue(Integer value) {
+            this.value = value;
+        }
+
+        public String getComment() {
+            return comment;
+        }
+
+        public void setComment(String comment) {
+            this.comment = comment != null && !comment.isBlank() ? comment.trim() : null;
+        }
+
+        public String getStudentName() {
+            return studentName;
+        }
+
+        public void setStudentName(String studentName) {
+            this.studentName = studentName;
+        }
+    }
+
+    public GradeBatchForm() {
+    }
+
+    public Long getGroupId() {
+        return groupId;
+    }
+
+    public void setGroupId(Long groupId) {
+        this.groupId = groupId;
+    }
+
+    public Long getSubjectId() {
+        return subjectId;
+    }
+
+    public void setSubjectId(Long subjectId) {
+        this.subjectId = subjectId;
+    }
+
+    public Long getLessonId() {
+        return lessonId;
+    }
+
+    public void setLessonId(Long lessonId) {
+        this.lessonId = lessonId;
+    }
+
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    public void setEntries(List<Entry> entries) {
+        this.entries = entries;
+    }
+}
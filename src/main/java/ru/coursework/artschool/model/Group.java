@@ -5,7 +5,9 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 
 @Entity
-@Table(name = "groups")
+@Table(name = "groups",
+        // список групп: страницы по (код, id) без OFFSET
+        indexes = @Index(name = "idx_groups_code_id", columnList = "code, id"))
 public class Group {
 
     @Id
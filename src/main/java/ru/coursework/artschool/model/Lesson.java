@@ -9,7 +9,16 @@ import java.time.LocalDate;
 import java.time.LocalTime;
 
 @Entity
-@Table(name = "lessons")
+@Table(name = "lessons",
+        indexes = {
+                // журнал: занятия группы по предмету за период, по порядку
+                @Index(name = "idx_lessons_group_subject_date",
+                        columnList = "group_id, subject_id, date, start_time"),
+                // проверка пересечений: занятия дня, пересекающиеся по времени
+                @Index(name = "idx_lessons_date_start", columnList = "date, start_time")
+        })
+// пересечения по преподавателю, группе и аудитории запрещены ограничениями
+// ex_lessons_*_time (EXCLUDE USING gist) — см. schema.sql
 public class Lesson {
 
     @Id
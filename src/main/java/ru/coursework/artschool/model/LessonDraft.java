@@ -0,0 +1,96 @@
+package ru.coursework.artschool.model;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+// Предлагаемое занятие черновика расписания (проверка «что если», в БД не пишется).
+// replacesLessonId — существующее занятие, которое черновик заменяет (перенос).
+public class LessonDraft {
+
+    private String key; // идентификатор в черновике; если не задан — номер в списке
+    private Long replacesLessonId;
+
+    private LocalDate date;
+    private LocalTime startTime;
+    private LocalTime endTime;
+
+    private Long subjectId;
+    private Long groupId;
+    private Long teacherId;
+    private Long roomId;
+
+    public LessonDraft() {
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public void setKey(String key) {
+        this.key = key;
+    }
+
+    public Long getReplacesLessonId() {
+        return replacesLessonId;
+    }
+
+    public void setReplacesLessonId(Long replacesLessonId) {
+        this.replacesLessonId = replacesLessonId;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public void setDate(LocalDate date) {
+        this.date = date;
+    }
+
+    public LocalTime getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(LocalTime startTime) {
+        this.startTime = startTime;
+    }
+
+    public LocalTime getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(LocalTime endTime) {
+        this.endTime = endTime;
+    }
+
+    public Long getSubjectId() {
+        return subjectId;
+    }
+
+    public void setSubjectId(Long subjectId) {
+        this.subjectId = subjectId;
+    }
+
+    public Long getGroupId() {
+        return groupId;
+    }
+
+    public void setGroupId(Long groupId) {
+        this.groupId = groupId;
+    }
+
+    public Long getTeacherId() {
+        return teacherId;
+    }
+
+    public void setTeacherId(Long teacherId) {
+        this.teacherId = teacherId;
+    }
+
+    public Long getRoomId() {
+        return roomId;
+    }
+
+    public void setRoomId(Long roomId) {
+        this.roomId = roomId;
+    }
+}
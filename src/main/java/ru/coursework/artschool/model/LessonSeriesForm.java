@@ -0,0 +1,156 @@
+package ru.coursework.artschool.model;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.EnumSet;
+import java.util.Set;
+
+// Серия одинаковых занятий: выбранные дни недели в периоде, кроме дат-исключений
+public class LessonSeriesForm {
+
+    @NotNull(message = "Дата начала обязательна")
+    @DateTimeFormat(pattern = "yyyy-MM-dd")
+    private LocalDate startDate;
+
+    @NotNull(message = "Дата окончания обязательна")
+    @DateTimeFormat(pattern = "yyyy-MM-dd")
+    private LocalDate endDate;
+
+    @NotEmpty(message = "Выберите хотя бы один день недели")
+    private Set<DayOfWeek> weekdays = EnumSet.noneOf(DayOfWeek.class);
+
+    // даты без занятий (праздники, каникулы) — через запятую или с новой строки
+    @Size(max = 2000)
+    private String excludedDates;
+
+    @NotNull(message = "Время начала обязательно")
+    @DateTimeFormat(pattern = "HH:mm")
+    private LocalTime startTime;
+
+    @NotNull(message = "Время окончания обязательно")
+    @DateTimeFormat(pattern = "HH:mm")
+    private LocalTime endTime;
+
+    @NotNull(message = "Дисциплина обязательна")
+    private Long subjectId;
+
+    @NotNull(message = "Группа обязательна")
+    private Long groupId;
+
+    @NotNull(message = "Преподаватель обязателен")
+    private Long teacherId;
+
+    @NotNull(message = "Аудитория обязательна")
+    private Long roomId;
+
+    @Size(max = 64)
+    private String type;
+
+    @Size(max = 1000)
+    private String notes;
+
+    public LessonSeriesForm() {
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public void setStartDate(LocalDate startDate) {
+        this.startDate = startDate;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    public void setEndDate(LocalDate endDate) {
+        this.endDate = endDate;
+    }
+
+    public Set<DayOfWeek> getWeekdays() {
+        return weekdays;
+    }
+
+    public void setWeekdays(Set<DayOfWeek> weekdays) {
+        this.weekdays = weekdays;
+    }
+
+    public String getExcludedDates() {
+        return excludedDates;
+    }
+
+    public void setExcludedDates(String excludedDates) {
+        this.excludedDates = excludedDates;
+    }
+
+    public LocalTime getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(LocalTime startTime) {
+        this.startTime = startTime;
+    }
+
+    public LocalTime getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(LocalTime endTime) {
+        this.endTime = endTime;
+    }
+
+    public Long getSubjectId() {
+        return subjectId;
+    }
+
+    public void setSubjectId(Long subjectId) {
+        this.subjectId = subjectId;
+    }
+
+    public Long getGroupId() {
+        return groupId;
+    }
+
+    public void setGroupId(Long groupId) {
+        this.groupId = groupId;
+    }
+
+    public Long getTeacherId() {
+        return teacherId;
+    }
+
+    public void setTeacherId(Long teacherId) {
+        this.teacherId = teacherId;
+    }
+
+    public Long getRoomId() {
+        return roomId;
+    }
+
+    public void setRoomId(Long roomId) {
+        this.roomId = roomId;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public String getNotes() {
+        return notes;
+    }
+
+    public void setNotes(String notes) {
+        this.notes = notes;
+    }
+}
@@ -9,7 +9,9 @@ import org.springframework.format.annotation.DateTimeFormat;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "students")
+@Table(name = "students",
+        // список учеников: страницы по (ФИО, id) без OFFSET
+        indexes = @Index(name = "idx_students_full_name_id", columnList = "full_name, id"))
 public class Student {
 
     @Id
@@ -8,7 +8,9 @@ import java.util.Set;
 import jakarta.persistence.ManyToMany;
 
 @Entity
-@Table(name = "subjects")
+@Table(name = "subjects",
+        // список дисциплин: страницы по (код, id) без OFFSET
+        indexes = @Index(name = "idx_subjects_code_id", columnList = "code, id"))
 public class Subject {
 
     @Id
@@ -11,7 +11,9 @@ import jakarta.persistence.JoinTable;
 import jakarta.persistence.JoinColumn;
 
 @Entity
-@Table(name = "teachers")
+@Table(name = "teachers",
+        // список преподавателей: страницы по (ФИО, id) без OFFSET
+        indexes = @Index(name = "idx_teachers_full_name_id", columnList = "full_name, id"))
 public class Teacher {
 
     @Id
@@ -0,0 +1,91 @@
+package ru.coursework.artschool.model;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+// Параметры генерации расписания: период, учебные дни, группы и дисциплины
+public class TimetableForm {
+
+    @NotNull(message = "Дата начала обязательна")
+    @DateTimeFormat(pattern = "yyyy-MM-dd")
+    private LocalDate startDate;
+
+    @NotNull(message = "Дата окончания обязательна")
+    @DateTimeFormat(pattern = "yyyy-MM-dd")
+    private LocalDate endDate;
+
+    @NotEmpty(message = "Выберите хотя бы один день недели")
+    private Set<DayOfWeek> weekdays = EnumSet.range(DayOfWeek.MONDAY, DayOfWeek.FRIDAY);
+
+    @NotEmpty(message = "Выберите хотя бы одну группу")
+    private List<Long> groupIds = new ArrayList<>();
+
+    @NotEmpty(message = "Выберите хотя бы одну дисциплину")
+    private List<Long> subjectIds = new ArrayList<>();
+
+    @NotNull(message = "Укажите время на поиск")
+    @Min(value = 1, message = "Не меньше 1 секунды")
+    @Max(value = 60, message = "Не больше 60 секунд")
+    private Integer budgetSeconds = 10;
+
+    public TimetableForm() {
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public void setStartDate(LocalDate startDate) {
+        this.startDate = startDate;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    public void setEndDate(LocalDate endDate) {
+        this.endDate = endDate;
+    }
+
+    public Set<DayOfWeek> getWeekdays() {
+        return weekdays;
+    }
+
+    public void setWeekdays(Set<DayOfWeek> weekdays) {
+        this.weekdays = weekdays;
+    }
+
+    public List<Long> getGroupIds() {
+        return groupIds;
+    }
+
+    public void setGroupIds(List<Long> groupIds) {
+        this.groupIds = groupIds;
+    }
+
+    public List<Long> getSubjectIds() {
+        return subjectIds;
+    }
+
+    public void setSubjectIds(List<Long> subjectIds) {
+        this.subjectIds = subjectIds;
+    }
+
+    public Integer getBudgetSeconds() {
+        return budgetSeconds;
+    }
+
+    public void setBudgetSeconds(Integer budgetSeconds) {
+        this.budgetSeconds = budgetSeconds;
+    }
+}
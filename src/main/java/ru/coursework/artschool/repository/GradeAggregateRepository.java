@@ -0,0 +1,40 @@
+package ru.coursework.artschool.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import ru.coursework.artschool.model.GradeAggregate;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+// Только чтение: запись идёт через GradeAggregateService (upsert в SQL)
+public interface GradeAggregateRepository extends JpaRepository<GradeAggregate, Long> {
+
+    List<GradeAggregate> findByScopeIn(Collection<GradeAggregate.Scope> scopes);
+
+    List<GradeAggregate> findByScopeAndStudentId(GradeAggregate.Scope scope, Long studentId);
+
+    // итоги ученика по дисциплинам (scope = STUDENT_SUBJECT) вместе с кодом и названием дисциплины
+    interface StudentSubjectTotal {
+        Long getSubjectId();
+        String getSubjectCode();
+        String getSubjectName();
+        long getGradeSum();
+        long getGradeCount();
+    }
+
+    @Query("select s.id as subjectId, s.code as subjectCode, s.name as subjectName, " +
+            "a.gradeSum as gradeSum, a.gradeCount as gradeCount " +
+            "from GradeAggregate a, Subject s " +
+            "where s.id = a.subjectId " +
+            "and a.scope = :scope " +
+            "and a.studentId = :studentId and a.gradeCount > 0 " +
+            "order by lower(s.code)")
+    List<StudentSubjectTotal> findStudentSubjectTotals(@Param("scope") GradeAggregate.Scope scope,
+                                                       @Param("studentId") Long studentId);
+
+    Optional<GradeAggregate> findByScopeAndGroupIdAndSubjectIdAndStudentId(
+            GradeAggregate.Scope scope, Long groupId, Long subjectId, Long studentId);
+}
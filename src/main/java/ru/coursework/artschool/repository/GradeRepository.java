@@ -1,8 +1,13 @@
 package ru.coursework.artschool.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.coursework.artschool.model.Grade;
 
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -10,10 +15,83 @@ public interface GradeRepository extends JpaRepository<Grade, Long> {
 
     // для конкретной группы и предмета — все оценки
     List<Grade> findByLesson_Group_IdAndLesson_Subject_Id(Long groupId, Long subjectId);
+
+    // ===== Ячейки журнала: только числа, без сущностей Grade/Lesson =====
+
+    interface JournalCell {
+        Long getStudentId();
+        Long getLessonId();
+        Long getGradeId();
+        Integer getGradeValue();
+    }
+
+    @Query("select g.student.id as studentId, l.id as lessonId, g.id as gradeId, g.value as gradeValue " +
+            "from Grade g join g.lesson l " +
+            "where l.group.id = :groupId and l.subject.id = :subjectId")
+    List<JournalCell> findJournalCells(@Param("groupId") Long groupId,
+                                       @Param("subjectId") Long subjectId);
+
+    // то же, но только за занятия выбранного периода (журнал с фильтром по датам)
+    @Query("select g.student.id as studentId, l.id as lessonId, g.id as gradeId, g.value as gradeValue " +
+            "from Grade g join g.lesson l " +
+            "where l.group.id = :groupId and l.subject.id = :subjectId " +
+            "and l.date between :start and :end")
+    List<JournalCell> findJournalCellsBetween(@Param("groupId") Long groupId,
+                                              @Param("subjectId") Long subjectId,
+                                              @Param("start") LocalDate start,
+                                              @Param("end") LocalDate end);
+
     List<Grade> findByStudent_Id(Long studentId);
 
+    // ===== Успеваемость ученика: оценки с данными занятия, уже упорядоченные =====
+
+    interface StudentGradeRow {
+        Long getGradeId();
+        Integer getGradeValue();
+        String getComment();
+        LocalDate getLessonDate();
+        LocalTime getLessonStartTime();
+        String getSubjectCode();
+        String getSubjectName();
+        String getGroupCode();
+    }
+
+    @Query("select g.id as gradeId, g.value as gradeValue, g.comment as comment, " +
+            "l.date as lessonDate, l.startTime as lessonStartTime, " +
+            "s.code as subjectCode, s.name as subjectName, gr.code as groupCode " +
+            "from Grade g join g.lesson l join l.subject s join l.group gr " +
+            "where g.student.id = :studentId " +
+            "order by l.date, l.startTime, g.id")
+    List<StudentGradeRow> findStudentGradeRows(@Param("studentId") Long studentId);
+
     // оценка конкретного ученика за конкретное занятие
     Optional<Grade> findByStudent_IdAndLesson_Id(Long studentId, Long lessonId);
 
+    // ===== Массовое выставление: существующие оценки за выбранные занятия =====
+
+    interface BatchGradeRow {
+        Long getGradeId();
+        Long getStudentId();
+        Long getLessonId();
+        Integer getGradeValue();
+        String getComment();
+    }
+
+    @Query("select g.id as gradeId, g.student.id as studentId, g.lesson.id as lessonId, " +
+            "g.value as gradeValue, g.comment as comment " +
+            "from Grade g " +
+            "where g.lesson.id in :lessonIds")
+    List<BatchGradeRow> findBatchRows(@Param("lessonIds") Collection<Long> lessonIds);
 
+    // то же для записи пакета: строки блокируются до конца транзакции (по возрастанию id,
+    // чтобы не было взаимных блокировок) — прежние значения для дельты агрегатов
+    // не изменятся до наших UPDATE
+    @Query(value = "select g.id as \"gradeId\", g.student_id as \"studentId\", g.lesson_id as \"lessonId\", " +
+            "g.value as \"gradeValue\", g.comment as \"comment\" " +
+            "from grades g " +
+            "where g.lesson_id in (:lessonIds) " +
+            "order by g.id " +
+            "for update",
+            nativeQuery = true)
+    List<BatchGradeRow> findBatchRowsForUpdate(@Param("lessonIds") Collection<Long> lessonIds);
 }
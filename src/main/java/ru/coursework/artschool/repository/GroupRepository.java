@@ -1,11 +1,13 @@
 package ru.coursework.artschool.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import ru.coursework.artschool.model.Group;
 
 import java.util.List;
 
-public interface GroupRepository extends JpaRepository<Group, Long> {
+public interface GroupRepository extends JpaRepository<Group, Long>,
+        JpaSpecificationExecutor<Group> {
 
     boolean existsByCode(String code);
 
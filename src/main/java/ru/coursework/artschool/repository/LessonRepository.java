@@ -1,10 +1,19 @@
 package ru.coursework.artschool.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import ru.coursework.artschool.model.Lesson;
 
 import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
 
 public interface LessonRepository extends JpaRepository<Lesson, Long> {
 
@@ -12,6 +21,32 @@ public interface LessonRepository extends JpaRepository<Lesson, Long> {
 
     List<Lesson> findByDateBetween(LocalDate start, LocalDate end);
 
+    // ===== Расписание за период: все четыре связи одним запросом, порядок — в SQL =====
+
+    String SCHEDULE_SELECT = "select l from Lesson l " +
+            "join fetch l.subject join fetch l.group join fetch l.teacher join fetch l.room " +
+            "where l.date between :start and :end ";
+    String SCHEDULE_ORDER = "order by l.date, l.startTime, l.id";
+
+    @Query(SCHEDULE_SELECT + SCHEDULE_ORDER)
+    List<Lesson> findScheduleBetween(@Param("start") LocalDate start,
+                                     @Param("end") LocalDate end);
+
+    @Query(SCHEDULE_SELECT + "and l.group.id = :groupId " + SCHEDULE_ORDER)
+    List<Lesson> findGroupScheduleBetween(@Param("start") LocalDate start,
+                                          @Param("end") LocalDate end,
+                                          @Param("groupId") Long groupId);
+
+    @Query(SCHEDULE_SELECT + "and l.teacher.id = :teacherId " + SCHEDULE_ORDER)
+    List<Lesson> findTeacherScheduleBetween(@Param("start") LocalDate start,
+                                            @Param("end") LocalDate end,
+                                            @Param("teacherId") Long teacherId);
+
+    @Query(SCHEDULE_SELECT + "and l.room.id = :roomId " + SCHEDULE_ORDER)
+    List<Lesson> findRoomScheduleBetween(@Param("start") LocalDate start,
+                                         @Param("end") LocalDate end,
+                                         @Param("roomId") Long roomId);
+
     List<Lesson> findByDateAndTeacher_Id(LocalDate date, Long teacherId);
 
     List<Lesson> findByDateAndGroup_Id(LocalDate date, Long groupId);
@@ -25,4 +60,125 @@ public interface LessonRepository extends JpaRepository<Lesson, Long> {
             java.time.LocalDate start,
             java.time.LocalDate end
     );
+
+    // какие из переданных занятий относятся к группе и дисциплине
+    @Query("select l.id from Lesson l " +
+            "where l.group.id = :groupId and l.subject.id = :subjectId and l.id in :ids")
+    Set<Long> findIdsOfGroupAndSubject(@Param("groupId") Long groupId,
+                                       @Param("subjectId") Long subjectId,
+                                       @Param("ids") Collection<Long> ids);
+
+    // ===== Заголовки столбцов журнала (проекция, сущности не создаются) =====
+
+    interface JournalLessonHeader {
+        Long getId();
+        LocalDate getDate();
+        LocalTime getStartTime();
+    }
+
+    List<JournalLessonHeader> findHeadersByGroup_IdAndSubject_IdOrderByDateAscStartTimeAsc(
+            Long groupId, Long subjectId);
+
+    List<JournalLessonHeader> findHeadersByGroup_IdAndSubject_IdAndDateBetweenOrderByDateAscStartTimeAsc(
+            Long groupId, Long subjectId,
+            LocalDate start,
+            LocalDate end
+    );
+
+    // ===== Интервалы занятий для индекса расписания (только id и время) =====
+
+    interface LessonSlot {
+        Long getId();
+        LocalDate getDate();
+        LocalTime getStartTime();
+        LocalTime getEndTime();
+        Long getTeacherId();
+        Long getGroupId();
+        Long getRoomId();
+    }
+
+    @Query("select l.id as id, l.date as date, l.startTime as startTime, l.endTime as endTime, " +
+            "l.teacher.id as teacherId, l.group.id as groupId, l.room.id as roomId " +
+            "from Lesson l where l.date between :start and :end")
+    List<LessonSlot> findSlotsBetween(@Param("start") LocalDate start,
+                                      @Param("end") LocalDate end);
+
+    // интервалы занятий нескольких отдельных дней (проверка черновика расписания)
+    @Query("select l.id as id, l.date as date, l.startTime as startTime, l.endTime as endTime, " +
+            "l.teacher.id as teacherId, l.group.id as groupId, l.room.id as roomId " +
+            "from Lesson l where l.date in :dates")
+    List<LessonSlot> findSlotsOn(@Param("dates") Collection<LocalDate> dates);
+
+    // занятия того же дня, пересекающиеся по времени и с тем же преподавателем,
+    // группой или аудиторией (excludeId — само редактируемое занятие, -1 для нового)
+    @Query("select l.id as id, l.date as date, l.startTime as startTime, l.endTime as endTime, " +
+            "l.teacher.id as teacherId, l.group.id as groupId, l.room.id as roomId " +
+            "from Lesson l " +
+            "where l.date = :date and l.startTime < :end and l.endTime > :start " +
+            "and (l.teacher.id = :teacherId or l.group.id = :groupId or l.room.id = :roomId) " +
+            "and l.id <> :excludeId " +
+            "order by l.startTime")
+    List<LessonSlot> findOverlapping(@Param("date") LocalDate date,
+                                     @Param("start") LocalTime start,
+                                     @Param("end") LocalTime end,
+                                     @Param("teacherId") Long teacherId,
+                                     @Param("groupId") Long groupId,
+                                     @Param("roomId") Long roomId,
+                                     @Param("excludeId") Long excludeId);
+
+    // то же для серии занятий: все дни периода одним запросом
+    @Query("select l.id as id, l.date as date, l.startTime as startTime, l.endTime as endTime, " +
+            "l.teacher.id as teacherId, l.group.id as groupId, l.room.id as roomId " +
+            "from Lesson l " +
+            "where l.date between :startDate and :endDate " +
+            "and l.startTime < :end and l.endTime > :start " +
+            "and (l.teacher.id = :teacherId or l.group.id = :groupId or l.room.id = :roomId) " +
+            "order by l.date, l.startTime")
+    List<LessonSlot> findOverlappingBetween(@Param("startDate") LocalDate startDate,
+                                            @Param("endDate") LocalDate endDate,
+                                            @Param("start") LocalTime start,
+                                            @Param("end") LocalTime end,
+                                            @Param("teacherId") Long teacherId,
+                                            @Param("groupId") Long groupId,
+                                            @Param("roomId") Long roomId);
+
+    // ===== Ленты iCalendar: построчно через курсор, сущности не создаются =====
+
+    interface FeedLesson {
+        Long getId();
+        LocalDate getDate();
+        LocalTime getStartTime();
+        LocalTime getEndTime();
+        String getSubjectName();
+        String getGroupCode();
+        String getTeacherName();
+        String getRoomCode();
+        String getType();
+        String getNotes();
+    }
+
+    String FEED_SELECT = "select l.id as id, l.date as date, l.startTime as startTime, l.endTime as endTime, " +
+            "s.name as subjectName, g.code as groupCode, t.fullName as teacherName, r.code as roomCode, " +
+            "l.type as type, l.notes as notes " +
+            "from Lesson l join l.subject s join l.group g join l.teacher t join l.room r " +
+            "where l.date between :start and :end ";
+
+    // поток нужно читать внутри транзакции и закрыть (try-with-resources)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(FEED_SELECT + "and g.id = :id " + SCHEDULE_ORDER)
+    Stream<FeedLesson> streamGroupFeed(@Param("start") LocalDate start,
+                                       @Param("end") LocalDate end,
+                                       @Param("id") Long groupId);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(FEED_SELECT + "and t.id = :id " + SCHEDULE_ORDER)
+    Stream<FeedLesson> streamTeacherFeed(@Param("start") LocalDate start,
+                                         @Param("end") LocalDate end,
+                                         @Param("id") Long teacherId);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(FEED_SELECT + "and r.id = :id " + SCHEDULE_ORDER)
+    Stream<FeedLesson> streamRoomFeed(@Param("start") LocalDate start,
+                                      @Param("end") LocalDate end,
+                                      @Param("id") Long roomId);
 }
@@ -3,7 +3,11 @@ package ru.coursework.artschool.repository;
 import org.springframework.data.jpa.repository.JpaRepository;
 import ru.coursework.artschool.model.Room;
 
+import java.util.List;
+
 public interface RoomRepository extends JpaRepository<Room, Long> {
 
     boolean existsByCodeIgnoreCase(String code);
+
+    List<Room> findByCodeContainingIgnoreCaseOrDescriptionContainingIgnoreCase(String codePart, String descriptionPart);
 }
@@ -1,11 +1,16 @@
 package ru.coursework.artschool.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.coursework.artschool.model.Student;
 
 import java.util.List;
+import java.util.Set;
 
-public interface StudentRepository extends JpaRepository<Student, Long> {
+public interface StudentRepository extends JpaRepository<Student, Long>,
+        JpaSpecificationExecutor<Student> {
 
     List<Student> findByFullNameContainingIgnoreCase(String part1);
 
@@ -14,4 +19,21 @@ public interface StudentRepository extends JpaRepository<Student, Long> {
 
     List<Student> findByFullNameContainingIgnoreCaseAndGroup_Id(String namePart, Long groupId);
 
+    long countByGroup_Id(Long groupId);
+
+    @Query("select s.id from Student s where s.group.id = :groupId")
+    Set<Long> findIdsByGroupId(@Param("groupId") Long groupId);
+
+    // количество учеников по группам (для отчётов)
+    interface GroupStudentCount {
+        Long getGroupId();
+        Long getStudentCount();
+    }
+
+    @Query("select s.group.id as groupId, count(s) as studentCount " +
+            "from Student s " +
+            "where s.group is not null " +
+            "group by s.group.id")
+    List<GroupStudentCount> countByGroup();
+
 }
@@ -1,12 +1,14 @@
 package ru.coursework.artschool.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import ru.coursework.artschool.model.Subject;
 
 import java.util.List;
 import java.util.Optional;
 
-public interface SubjectRepository extends JpaRepository<Subject, Long> {
+public interface SubjectRepository extends JpaRepository<Subject, Long>,
+        JpaSpecificationExecutor<Subject> {
 
     Optional<Subject> findByCode(String code);
 
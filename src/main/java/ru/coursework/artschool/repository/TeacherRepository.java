@@ -1,13 +1,25 @@
 package ru.coursework.artschool.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
 import ru.coursework.artschool.model.Teacher;
 
 import java.util.List;
 
-public interface TeacherRepository extends JpaRepository<Teacher, Long> {
+public interface TeacherRepository extends JpaRepository<Teacher, Long>,
+        JpaSpecificationExecutor<Teacher> {
 
     List<Teacher> findByFullNameContainingIgnoreCaseOrSpecializationContainingIgnoreCase(
             String namePart, String specializationPart
     );
+
+    // какие дисциплины ведёт преподаватель (без загрузки сущностей)
+    interface TeacherSubjectPair {
+        Long getTeacherId();
+        Long getSubjectId();
+    }
+
+    @Query("select t.id as teacherId, s.id as subjectId from Teacher t join t.subjects s")
+    List<TeacherSubjectPair> findTeacherSubjectPairs();
 }
@@ -0,0 +1,211 @@
+package ru.coursework.artschool.service;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.coursework.artschool.model.Group;
+import ru.coursework.artschool.model.Room;
+import ru.coursework.artschool.model.Subject;
+import ru.coursework.artschool.model.Teacher;
+import ru.coursework.artschool.repository.GroupRepository;
+import ru.coursework.artschool.repository.LessonRepository;
+import ru.coursework.artschool.repository.RoomRepository;
+import ru.coursework.artschool.repository.TeacherRepository;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.*;
+import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+// Ленты расписания в формате iCalendar (RFC 5545) для группы, преподавателя и аудитории.
+//
+// Календарные приложения опрашивают ленту каждые несколько минут, поэтому для каждой
+// ленты в памяти хранится только её версия (ETag и Last-Modified) — на условный запрос
+// ответ 304 получается без обращения к БД. Версия сбрасывается после коммита записи
+// занятий этой группы / преподавателя / аудитории. Сама лента не собирается в памяти:
+// VEVENT пишутся в ответ по мере чтения строк из курсора.
+@Service
+public class CalendarFeedService {
+
+    public enum FeedKind { GROUP, TEACHER, ROOM }
+
+    private static final DateTimeFormatter UTC_STAMP =
+            DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'").withZone(ZoneOffset.UTC);
+    private static final int MAX_LINE_OCTETS = 75;
+
+    private static final Class<?>[] TRACKED_TYPES = {
+            Group.class, Teacher.class, Room.class, Subject.class
+    };
+
+    public static final class Feed {
+        private final String calendarName;
+        private final String etag;
+        private final long lastModified;
+
+        Feed(String calendarName, String etag, long lastModified) {
+            this.calendarName = calendarName;
+            this.etag = etag;
+            this.lastModified = lastModified;
+        }
+
+        public String getCalendarName() { return calendarName; }
+        public long getLastModified() { return lastModified; }
+
+        // диапазон входит в ETag: лента за другой период — другое содержимое
+        public String etagFor(LocalDate from, LocalDate to) {
+            return "\"" + etag + "-" + from + "-" + to + "\"";
+        }
+    }
+
+    private final LessonRepository lessonRepository;
+    private final GroupRepository groupRepository;
+    private final TeacherRepository teacherRepository;
+    private final RoomRepository roomRepository;
+
+    private final Map<String, Feed> feeds = new ConcurrentHashMap<>();
+    // после перезапуска версии начинаются заново — префикс не даёт им совпасть со старыми
+    private final String versionPrefix = Long.toHexString(System.currentTimeMillis());
+    private final AtomicLong versions = new AtomicLong();
+
+    public CalendarFeedService(LessonRepository lessonRepository,
+                               GroupRepository groupRepository,
+                               TeacherRepository teacherRepository,
+                               RoomRepository roomRepository) {
+        this.lessonRepository = lessonRepository;
+        this.groupRepository = groupRepository;
+        this.teacherRepository = teacherRepository;
+        this.roomRepository = roomRepository;
+    }
+
+    // Текущая версия ленты; пусто — такой группы / преподавателя / аудитории нет
+    public Optional<Feed> findFeed(FeedKind kind, Long id) {
+        String key = key(kind, id);
+        Feed feed = feeds.get(key);
+        if (feed != null) {
+            return Optional.of(feed);
+        }
+        Optional<String> name = switch (kind) {
+            case GROUP -> groupRepository.findById(id).map(g -> "Группа " + g.getCode());
+            case TEACHER -> teacherRepository.findById(id).map(Teacher::getFullName);
+            case ROOM -> roomRepository.findById(id).map(r -> "Аудитория " + r.getCode());
+        };
+        return name.map(n -> feeds.computeIfAbsent(key, k -> new Feed(n,
+                versionPrefix + "-" + versions.incrementAndGet(), System.currentTimeMillis() / 1000 * 1000)));
+    }
+
+    @Transactional(readOnly = true)
+    public void writeFeed(FeedKind kind, Long id, LocalDate from, LocalDate to,
+                          Feed feed, Writer out) throws IOException {
+        String stamp = UTC_STAMP.format(Instant.ofEpochMilli(feed.getLastModified()));
+        ZoneId zone = ZoneId.systemDefault();
+
+        line(out, "BEGIN:VCALENDAR");
+        line(out, "VERSION:2.0");
+        line(out, "PRODID:-//ArtSchool//Schedule//RU");
+        line(out, "CALSCALE:GREGORIAN");
+        line(out, "METHOD:PUBLISH");
+        line(out, "X-WR-CALNAME:" + escape(feed.getCalendarName()));
+
+        try (Stream<LessonRepository.FeedLesson> lessons = switch (kind) {
+            case GROUP -> lessonRepository.streamGroupFeed(from, to, id);
+            case TEACHER -> lessonRepository.streamTeacherFeed(from, to, id);
+            case ROOM -> lessonRepository.streamRoomFeed(from, to, id);
+        }) {
+            Iterator<LessonRepository.FeedLesson> it = lessons.iterator();
+            while (it.hasNext()) {
+                LessonRepository.FeedLesson l = it.next();
+                String summary = l.getSubjectName()
+                        + (l.getType() != null && !l.getType().isBlank() ? " (" + l.getType() + ")" : "");
+                StringBuilder description = new StringBuilder()
+                        .append("Группа: ").append(l.getGroupCode())
+                        .append("\nПреподаватель: ").append(l.getTeacherName());
+                if (l.getNotes() != null && !l.getNotes().isBlank()) {
+                    description.append("\n").append(l.getNotes());
+                }
+
+                line(out, "BEGIN:VEVENT");
+                line(out, "UID:lesson-" + l.getId() + "@artschool");
+                line(out, "DTSTAMP:" + stamp);
+                line(out, "DTSTART:" + UTC_STAMP.format(l.getDate().atTime(l.getStartTime()).atZone(zone)));
+                line(out, "DTEND:" + UTC_STAMP.format(l.getDate().atTime(l.getEndTime()).atZone(zone)));
+                line(out, "SUMMARY:" + escape(summary));
+                line(out, "LOCATION:" + escape(l.getRoomCode()));
+                line(out, "DESCRIPTION:" + escape(description.toString()));
+                line(out, "END:VEVENT");
+            }
+        }
+        line(out, "END:VCALENDAR");
+    }
+
+    @EventListener
+    public void onLessonsChanged(LessonsChangedEvent event) {
+        afterCommit(() -> {
+            event.getGroupIds().forEach(id -> feeds.remove(key(FeedKind.GROUP, id)));
+            event.getTeacherIds().forEach(id -> feeds.remove(key(FeedKind.TEACHER, id)));
+            event.getRoomIds().forEach(id -> feeds.remove(key(FeedKind.ROOM, id)));
+        });
+    }
+
+    // названия групп, преподавателей, аудиторий и дисциплин есть в событиях всех лент
+    @EventListener
+    public void onEntityChanged(EntityChangedEvent event) {
+        if (event.isAbout(TRACKED_TYPES)) {
+            afterCommit(feeds::clear);
+        }
+    }
+
+    private static void afterCommit(Runnable invalidation) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidation.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                invalidation.run();
+            }
+        });
+    }
+
+    private static String key(FeedKind kind, Long id) {
+        return kind + ":" + id;
+    }
+
+    // экранирование TEXT по RFC 5545, 3.3.11
+    private static String escape(String text) {
+        if (text == null) {
+            return "";
+        }
+        return text.replace("\\", "\\\\")
+                .replace(";", "\\;")
+                .replace(",", "\\,")
+                .replace("\r\n", "\\n")
+                .replace("\n", "\\n")
+                .replace("\r", "\\n");
+    }
+
+    // строка контента с переносом по 75 октетов UTF-8 (RFC 5545, 3.1), не разрывая символы
+    private static void line(Writer out, String content) throws IOException {
+        int octets = 0;
+        for (int i = 0; i < content.length(); ) {
+            int cp = content.codePointAt(i);
+            int size = cp < 0x80 ? 1 : cp < 0x800 ? 2 : cp < 0x10000 ? 3 : 4;
+            if (octets + size > MAX_LINE_OCTETS) {
+                out.write("\r\n ");
+                octets = 1;
+            }
+            out.write(Character.toChars(cp));
+            octets += size;
+            i += Character.charCount(cp);
+        }
+        out.write("\r\n");
+    }
+}
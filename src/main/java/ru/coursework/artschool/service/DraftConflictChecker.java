@@ -0,0 +1,247 @@
+package ru.coursework.artschool.service;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.coursework.artschool.model.LessonDraft;
+import ru.coursework.artschool.repository.LessonRepository;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.*;
+
+// Проверка черновика расписания «что если»: все конфликты сразу, без записи в БД.
+//
+// Занятия всех затронутых дней читаются одним запросом; заменяемые черновиком занятия
+// из них выбрасываются. Затем по каждому дню и каждому ресурсу (преподаватель, группа,
+// аудитория) интервалы сортируются по началу и проходятся один раз: пересекаются
+// только интервалы, начавшиеся до конца текущего. Пары «существующее — существующее»
+// не выдаются (их не допускают ограничения БД).
+@Service
+public class DraftConflictChecker {
+
+    private static final int MAX_DRAFTS = 2000;
+
+    private final LessonService lessonService;
+    private final LessonRepository lessonRepository;
+
+    public DraftConflictChecker(LessonService lessonService,
+                                LessonRepository lessonRepository) {
+        this.lessonService = lessonService;
+        this.lessonRepository = lessonRepository;
+    }
+
+    // Вершина графа: занятие черновика ("draft:<key>") или существующее ("lesson:<id>")
+    public static class DraftNode {
+        private final String id;
+        private final boolean draft;
+        private final String key;
+        private final Long lessonId;
+        private final LocalDate date;
+        private final LocalTime start;
+        private final LocalTime end;
+        private final Long teacherId;
+        private final Long groupId;
+        private final Long roomId;
+
+        DraftNode(String id, boolean draft, String key, Long lessonId, LocalDate date,
+                  LocalTime start, LocalTime end, Long teacherId, Long groupId, Long roomId) {
+            this.id = id;
+            this.draft = draft;
+            this.key = key;
+            this.lessonId = lessonId;
+            this.date = date;
+            this.start = start;
+            this.end = end;
+            this.teacherId = teacherId;
+            this.groupId = groupId;
+            this.roomId = roomId;
+        }
+
+        public String getId() { return id; }
+        public boolean isDraft() { return draft; }
+        public String getKey() { return key; }
+        public Long getLessonId() { return lessonId; }
+        public LocalDate getDate() { return date; }
+        public LocalTime getStart() { return start; }
+        public LocalTime getEnd() { return end; }
+        public Long getTeacherId() { return teacherId; }
+        public Long getGroupId() { return groupId; }
+        public Long getRoomId() { return roomId; }
+
+        Long resourceId(ScheduleIndex.Resource resource) {
+            return switch (resource) {
+                case TEACHER -> teacherId;
+                case GROUP -> groupId;
+                case ROOM -> roomId;
+            };
+        }
+    }
+
+    // Ребро графа: два занятия одновременно используют один ресурс
+    public static class ConflictEdge {
+        private final String from;
+        private final String to;
+        private final ScheduleIndex.Resource resource;
+        private final Long resourceId;
+        private final LocalDate date;
+        private final String message;
+
+        ConflictEdge(String from, String to, ScheduleIndex.Resource resource,
+                     Long resourceId, LocalDate date, String message) {
+            this.from = from;
+            this.to = to;
+            this.resource = resource;
+            this.resourceId = resourceId;
+            this.date = date;
+            this.message = message;
+        }
+
+        public String getFrom() { return from; }
+        public String getTo() { return to; }
+        public ScheduleIndex.Resource getResource() { return resource; }
+        public Long getResourceId() { return resourceId; }
+        public LocalDate getDate() { return date; }
+        public String getMessage() { return message; }
+    }
+
+    // Нарушение правил одного занятия черновика (длительность, обед, пустые поля)
+    public static class RuleViolation {
+        private final String node;
+        private final String message;
+
+        RuleViolation(String node, String message) {
+            this.node = node;
+            this.message = message;
+        }
+
+        public String getNode() { return node; }
+        public String getMessage() { return message; }
+    }
+
+    public static class DraftCheckResult {
+        private final List<DraftNode> nodes = new ArrayList<>();
+        private final List<ConflictEdge> conflicts = new ArrayList<>();
+        private final List<RuleViolation> violations = new ArrayList<>();
+
+        public List<DraftNode> getNodes() { return nodes; }
+        public List<ConflictEdge> getConflicts() { return conflicts; }
+        public List<RuleViolation> getViolations() { return violations; }
+
+        public boolean isValid() {
+            return conflicts.isEmpty() && violations.isEmpty();
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public DraftCheckResult check(List<LessonDraft> drafts) {
+        if (drafts.size() > MAX_DRAFTS) {
+            throw new IllegalArgumentException("В черновике не может быть больше " + MAX_DRAFTS + " занятий");
+        }
+        DraftCheckResult result = new DraftCheckResult();
+
+        // 1) занятия черновика и правила каждого из них
+        Set<String> keys = new HashSet<>();
+        Set<Long> replaced = new HashSet<>();
+        Map<LocalDate, List<DraftNode>> byDate = new HashMap<>();
+        for (int i = 0; i < drafts.size(); i++) {
+            LessonDraft d = drafts.get(i);
+            String key = (d.getKey() != null && !d.getKey().isBlank()) ? d.getKey() : String.valueOf(i);
+            if (!keys.add(key)) {
+                throw new IllegalArgumentException("Повторяющийся ключ занятия в черновике: " + key);
+            }
+            if (d.getReplacesLessonId() != null) {
+                replaced.add(d.getReplacesLessonId());
+            }
+
+            DraftNode node = new DraftNode("draft:" + key, true, key, d.getReplacesLessonId(), d.getDate(),
+                    d.getStartTime(), d.getEndTime(), d.getTeacherId(), d.getGroupId(), d.getRoomId());
+            result.nodes.add(node);
+
+            if (d.getDate() == null || d.getStartTime() == null || d.getEndTime() == null) {
+                result.violations.add(new RuleViolation(node.id, "Дата и время занятия обязательны"));
+                continue;
+            }
+            if (d.getSubjectId() == null || d.getGroupId() == null
+                    || d.getTeacherId() == null || d.getRoomId() == null) {
+                result.violations.add(new RuleViolation(node.id,
+                        "Дисциплина, группа, преподаватель и аудитория обязательны"));
+            }
+            for (String message : lessonService.timeRuleViolations(d.getStartTime(), d.getEndTime())) {
+                result.violations.add(new RuleViolation(node.id, message));
+            }
+            byDate.computeIfAbsent(d.getDate(), k -> new ArrayList<>()).add(node);
+        }
+        if (byDate.isEmpty()) {
+            return result;
+        }
+
+        // 2) существующие занятия тех же дней — одним запросом
+        for (LessonRepository.LessonSlot l : lessonRepository.findSlotsOn(byDate.keySet())) {
+            if (replaced.contains(l.getId())) {
+                continue;
+            }
+            byDate.get(l.getDate()).add(new DraftNode("lesson:" + l.getId(), false, null, l.getId(),
+                    l.getDate(), l.getStartTime(), l.getEndTime(),
+                    l.getTeacherId(), l.getGroupId(), l.getRoomId()));
+        }
+
+        // 3) пересечения по каждому ресурсу дня
+        Set<String> involved = new HashSet<>();
+        List<LocalDate> dates = new ArrayList<>(byDate.keySet());
+        Collections.sort(dates);
+        for (LocalDate date : dates) {
+            List<DraftNode> day = byDate.get(date);
+            day.sort(Comparator.comparing(DraftNode::getStart));
+            for (ScheduleIndex.Resource resource : ScheduleIndex.Resource.values()) {
+                Map<Long, List<DraftNode>> byResource = new HashMap<>();
+                for (DraftNode n : day) {
+                    Long id = n.resourceId(resource);
+                    if (id != null) {
+                        byResource.computeIfAbsent(id, k -> new ArrayList<>()).add(n);
+                    }
+                }
+                for (Map.Entry<Long, List<DraftNode>> e : byResource.entrySet()) {
+                    addOverlaps(e.getValue(), resource, e.getKey(), date, result.conflicts, involved);
+                }
+            }
+        }
+
+        // в графе — все занятия черновика и те существующие, с которыми они конфликтуют
+        for (LocalDate date : dates) {
+            for (DraftNode n : byDate.get(date)) {
+                if (!n.draft && involved.contains(n.id)) {
+                    result.nodes.add(n);
+                }
+            }
+        }
+        return result;
+    }
+
+    // nodes отсортированы по началу
+    private static void addOverlaps(List<DraftNode> nodes, ScheduleIndex.Resource resource, Long resourceId,
+                                    LocalDate date, List<ConflictEdge> out, Set<String> involved) {
+        for (int i = 0; i < nodes.size(); i++) {
+            DraftNode a = nodes.get(i);
+            for (int j = i + 1; j < nodes.size() && nodes.get(j).start.isBefore(a.end); j++) {
+                DraftNode b = nodes.get(j);
+                if (!a.draft && !b.draft) {
+                    continue;
+                }
+                if (!b.end.isAfter(a.start)) {
+                    continue; // интервал b пустой или перевёрнутый — он уже в нарушениях правил
+                }
+                out.add(new ConflictEdge(a.id, b.id, resource, resourceId, date, message(resource)));
+                involved.add(a.id);
+                involved.add(b.id);
+            }
+        }
+    }
+
+    private static String message(ScheduleIndex.Resource resource) {
+        return switch (resource) {
+            case TEACHER -> "Преподаватель занят в это время";
+            case GROUP -> "У группы в это время другое занятие";
+            case ROOM -> "Аудитория занята в это время";
+        };
+    }
+}
@@ -0,0 +1,31 @@
+package ru.coursework.artschool.service;
+
+// Публикуется сервисами при каждой записи (создание, изменение, удаление).
+// Слушатели сами решают, когда реагировать: кэши — только после коммита.
+public class EntityChangedEvent {
+
+    private final Class<?> entityType;
+    private final Long entityId; // null — изменилось сразу много записей
+
+    public EntityChangedEvent(Class<?> entityType, Long entityId) {
+        this.entityType = entityType;
+        this.entityId = entityId;
+    }
+
+    public Class<?> getEntityType() {
+        return entityType;
+    }
+
+    public Long getEntityId() {
+        return entityId;
+    }
+
+    public boolean isAbout(Class<?>... types) {
+        for (Class<?> type : types) {
+            if (type.equals(entityType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
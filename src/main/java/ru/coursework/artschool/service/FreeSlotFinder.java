@@ -0,0 +1,187 @@
+package ru.coursework.artschool.service;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.coursework.artschool.model.Room;
+import ru.coursework.artschool.repository.LessonRepository;
+import ru.coursework.artschool.repository.RoomRepository;
+import ru.coursework.artschool.repository.StudentRepository;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+// Подбор свободного времени для нового занятия группы с преподавателем.
+//
+// Занятость каждого ресурса (группа, преподаватель, каждая аудитория) за день —
+// BitSet по минутам суток; строится из одного запроса по периоду. Начало занятия
+// перебирается с шагом 10 минут в рамках учебного дня, время проверяется правилами
+// LessonService (90 минут, без обеда), свобода ресурса — nextSetBit на интервале.
+@Service
+public class FreeSlotFinder {
+
+    private static final Duration STEP = Duration.ofMinutes(10);
+    private static final int MAX_DAYS = 92;
+
+    private final LessonService lessonService;
+    private final LessonRepository lessonRepository;
+    private final RoomRepository roomRepository;
+    private final StudentRepository studentRepository;
+
+    public FreeSlotFinder(LessonService lessonService,
+                          LessonRepository lessonRepository,
+                          RoomRepository roomRepository,
+                          StudentRepository studentRepository) {
+        this.lessonService = lessonService;
+        this.lessonRepository = lessonRepository;
+        this.roomRepository = roomRepository;
+        this.studentRepository = studentRepository;
+    }
+
+    public static class RoomOption {
+        private final Long id;
+        private final String code;
+        private final Integer capacity;
+
+        RoomOption(Long id, String code, Integer capacity) {
+            this.id = id;
+            this.code = code;
+            this.capacity = capacity;
+        }
+
+        public Long getId() { return id; }
+        public String getCode() { return code; }
+        public Integer getCapacity() { return capacity; }
+    }
+
+    public static class FreeSlot {
+        private final LocalDate date;
+        private final LocalTime start;
+        private final LocalTime end;
+        private final List<RoomOption> rooms;
+
+        FreeSlot(LocalDate date, LocalTime start, LocalTime end, List<RoomOption> rooms) {
+            this.date = date;
+            this.start = start;
+            this.end = end;
+            this.rooms = rooms;
+        }
+
+        public LocalDate getDate() { return date; }
+        public LocalTime getStart() { return start; }
+        public LocalTime getEnd() { return end; }
+        public List<RoomOption> getRooms() { return rooms; }
+    }
+
+    // Свободное время группы и преподавателя в периоде.
+    // roomId == null — подходят любые аудитории, вмещающие группу (список в каждом слоте).
+    @Transactional(readOnly = true)
+    public List<FreeSlot> findFreeSlots(Long groupId, Long teacherId, Long roomId,
+                                        LocalDate startDate, LocalDate endDate) {
+        if (endDate.isBefore(startDate)) {
+            throw new IllegalArgumentException("Дата окончания раньше даты начала");
+        }
+        int days = (int) ChronoUnit.DAYS.between(startDate, endDate) + 1;
+        if (days > MAX_DAYS) {
+            throw new IllegalArgumentException("Период поиска не может быть длиннее " + MAX_DAYS + " дней");
+        }
+
+        List<Room> rooms;
+        if (roomId != null) {
+            rooms = List.of(roomRepository.findById(roomId)
+                    .orElseThrow(() -> new IllegalArgumentException("Аудитория не найдена")));
+        } else {
+            long groupSize = studentRepository.countByGroup_Id(groupId);
+            rooms = new ArrayList<>();
+            for (Room r : roomRepository.findAll()) {
+                if (r.getCapacity() == null || r.getCapacity() >= groupSize) {
+                    rooms.add(r);
+                }
+            }
+            rooms.sort(Comparator.comparing(Room::getCode, String.CASE_INSENSITIVE_ORDER));
+        }
+        Map<Long, Integer> roomIndex = new HashMap<>();
+        for (int i = 0; i < rooms.size(); i++) {
+            roomIndex.put(rooms.get(i).getId(), i);
+        }
+
+        // занятость по дням: [день][0] — группа, [день][1] — преподаватель, [день][2 + i] — аудитория i
+        BitSet[][] busy = new BitSet[days][2 + rooms.size()];
+        for (LessonRepository.LessonSlot l : lessonRepository.findSlotsBetween(startDate, endDate)) {
+            int day = (int) ChronoUnit.DAYS.between(startDate, l.getDate());
+            int from = minuteOf(l.getStartTime());
+            int to = minuteOf(l.getEndTime());
+
+            if (l.getGroupId().equals(groupId)) {
+                occupy(busy[day], 0, from, to);
+            }
+            if (l.getTeacherId().equals(teacherId)) {
+                occupy(busy[day], 1, from, to);
+            }
+            Integer r = roomIndex.get(l.getRoomId());
+            if (r != null) {
+                occupy(busy[day], 2 + r, from, to);
+            }
+        }
+
+        List<LocalTime> starts = candidateStarts();
+        List<FreeSlot> result = new ArrayList<>();
+
+        for (int day = 0; day < days; day++) {
+            LocalDate date = startDate.plusDays(day);
+            for (LocalTime start : starts) {
+                LocalTime end = start.plus(LessonService.LESSON_DURATION);
+                int from = minuteOf(start);
+                int to = minuteOf(end);
+
+                if (!isFree(busy[day][0], from, to) || !isFree(busy[day][1], from, to)) {
+                    continue;
+                }
+                List<RoomOption> freeRooms = new ArrayList<>();
+                for (int r = 0; r < rooms.size(); r++) {
+                    if (isFree(busy[day][2 + r], from, to)) {
+                        Room room = rooms.get(r);
+                        freeRooms.add(new RoomOption(room.getId(), room.getCode(), room.getCapacity()));
+                    }
+                }
+                if (!freeRooms.isEmpty()) {
+                    result.add(new FreeSlot(date, start, end, freeRooms));
+                }
+            }
+        }
+        return result;
+    }
+
+    // начала занятий в рамках учебного дня, допустимые по правилам LessonService
+    private List<LocalTime> candidateStarts() {
+        List<LocalTime> starts = new ArrayList<>();
+        LocalTime latest = LessonService.DAY_END.minus(LessonService.LESSON_DURATION);
+        for (LocalTime t = LessonService.DAY_START; !t.isAfter(latest); t = t.plus(STEP)) {
+            if (lessonService.isAllowedTime(t, t.plus(LessonService.LESSON_DURATION))) {
+                starts.add(t);
+            }
+        }
+        return starts;
+    }
+
+    private static void occupy(BitSet[] day, int resource, int from, int to) {
+        if (day[resource] == null) {
+            day[resource] = new BitSet(24 * 60);
+        }
+        day[resource].set(from, to);
+    }
+
+    private static boolean isFree(BitSet bits, int from, int to) {
+        if (bits == null) {
+            return true;
+        }
+        int next = bits.nextSetBit(from);
+        return next < 0 || next >= to;
+    }
+
+    private static int minuteOf(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+}
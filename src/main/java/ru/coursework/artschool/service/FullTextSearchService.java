@@ -0,0 +1,130 @@
+package ru.coursework.artschool.service;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.web.util.HtmlUtils;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+
+// Полнотекстовый поиск по заметкам об учениках, биографиям преподавателей,
+// описаниям дисциплин и заметкам к занятиям — с русской морфологией
+// («акварелью» находит «акварель», «рисовали» — «рисование»).
+//
+// Векторы лежат в генерируемых столбцах *_tsv с GIN-индексами (schema.sql).
+// Запрос пользователя разбирается websearch_to_tsquery: слова через пробел — И,
+// "фраза в кавычках", or — ИЛИ, -слово — исключить. Совпадения всех четырёх таблиц
+// ранжируются вместе (ts_rank), фрагменты с подсветкой строятся только для уже
+// отобранных лучших — ts_headline заново разбирает исходный текст и стоит дорого.
+@Service
+public class FullTextSearchService {
+
+    public enum Kind { STUDENT, TEACHER, SUBJECT, LESSON }
+
+    public static final int DEFAULT_LIMIT = 20;
+    public static final int MAX_LIMIT = 100;
+
+    // маркеры подсветки от ts_headline; после экранирования текста заменяются на <mark>
+    private static final String START_SEL = "⟦";
+    private static final String STOP_SEL = "⟧";
+
+    private static final String SEARCH_SQL = """
+            with hits as (
+                (select 'STUDENT' as kind, s.id, s.full_name as title, null::date as date,
+                        s.notes as body, ts_rank(s.notes_tsv, websearch_to_tsquery('russian', :q)) as rank
+                   from students s
+                  where s.notes_tsv @@ websearch_to_tsquery('russian', :q))
+                union all
+                (select 'TEACHER', t.id, t.full_name, null::date,
+                        t.bio, ts_rank(t.bio_tsv, websearch_to_tsquery('russian', :q))
+                   from teachers t
+                  where t.bio_tsv @@ websearch_to_tsquery('russian', :q))
+                union all
+                (select 'SUBJECT', sub.id, sub.code || ' — ' || sub.name, null::date,
+                        sub.description, ts_rank(sub.description_tsv, websearch_to_tsquery('russian', :q))
+                   from subjects sub
+                  where sub.description_tsv @@ websearch_to_tsquery('russian', :q))
+                union all
+                (select 'LESSON', l.id, sub.name || ', ' || g.code, l.date,
+                        l.notes, ts_rank(l.notes_tsv, websearch_to_tsquery('russian', :q))
+                   from lessons l
+                   join subjects sub on sub.id = l.subject_id
+                   join groups g on g.id = l.group_id
+                  where l.notes_tsv @@ websearch_to_tsquery('russian', :q))
+                order by rank desc, kind, id
+                limit :limit
+            )
+            select kind, id, title, date, rank,
+                   ts_headline('russian', body, websearch_to_tsquery('russian', :q),
+                               'StartSel="⟦", StopSel="⟧", MaxWords=30, MinWords=10, MaxFragments=2, FragmentDelimiter=" … "')
+                       as snippet
+              from hits
+             order by rank desc, kind, id
+            """;
+
+    public static class TextHit {
+        private final Kind kind;
+        private final Long id;
+        private final String title;
+        private final LocalDate date;
+        private final double rank;
+        private final String snippetHtml;
+
+        TextHit(Kind kind, Long id, String title, LocalDate date, double rank, String snippetHtml) {
+            this.kind = kind;
+            this.id = id;
+            this.title = title;
+            this.date = date;
+            this.rank = rank;
+            this.snippetHtml = snippetHtml;
+        }
+
+        public Kind getKind() { return kind; }
+        public Long getId() { return id; }
+        public String getTitle() { return title; }
+        public LocalDate getDate() { return date; }   // только у занятий
+        public double getRank() { return rank; }
+
+        // экранированный текст, совпадения обёрнуты в <mark>
+        public String getSnippetHtml() { return snippetHtml; }
+    }
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public FullTextSearchService(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public List<TextHit> search(String query, Integer limit) {
+        if (query == null || query.isBlank()) {
+            return List.of();
+        }
+        int max = (limit == null) ? DEFAULT_LIMIT : Math.max(1, Math.min(limit, MAX_LIMIT));
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("q", query.trim())
+                .addValue("limit", max);
+
+        return jdbcTemplate.query(SEARCH_SQL, params, (rs, rowNum) -> {
+            Date date = rs.getDate("date");
+            return new TextHit(
+                    Kind.valueOf(rs.getString("kind")),
+                    rs.getLong("id"),
+                    rs.getString("title"),
+                    date != null ? date.toLocalDate() : null,
+                    rs.getDouble("rank"),
+                    highlight(rs.getString("snippet")));
+        });
+    }
+
+    // текст из БД может содержать разметку — сначала экранируем, потом ставим свою подсветку
+    static String highlight(String snippet) {
+        if (snippet == null) {
+            return "";
+        }
+        return HtmlUtils.htmlEscape(snippet, "UTF-8")
+                .replace(START_SEL, "<mark>")
+                .replace(STOP_SEL, "</mark>");
+    }
+}
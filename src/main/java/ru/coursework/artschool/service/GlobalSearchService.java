@@ -0,0 +1,309 @@
+package ru.coursework.artschool.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.coursework.artschool.model.Group;
+import ru.coursework.artschool.model.Room;
+import ru.coursework.artschool.model.Student;
+import ru.coursework.artschool.model.Subject;
+import ru.coursework.artschool.model.Teacher;
+import ru.coursework.artschool.repository.GroupRepository;
+import ru.coursework.artschool.repository.RoomRepository;
+import ru.coursework.artschool.repository.SubjectRepository;
+import ru.coursework.artschool.repository.TeacherRepository;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Общий поиск по ученикам, преподавателям, группам, дисциплинам и аудиториям.
+//
+// Запросы к источникам идут параллельно в собственном ограниченном пуле потоков
+// (очередь фиксированной длины: при перегрузке источник сразу пропускается, а не
+// копит ожидание). Ответ собирается к сроку budget от начала запроса: не успевшие
+// источники отменяются и отмечаются в ответе, остальные результаты выдаются как есть.
+// Отмена Future не останавливает уже запущенный SQL-запрос, поэтому каждый источник
+// идёт в своей транзакции с statement_timeout на оставшееся время: PostgreSQL сам
+// прерывает запрос, и поток с соединением освобождаются к сроку.
+// Совпадения всех источников сводятся в один список по общей оценке релевантности.
+@Service
+public class GlobalSearchService {
+
+    public enum Source { STUDENT, TEACHER, GROUP, SUBJECT, ROOM }
+
+    public enum SourceState {
+        OK,        // ответил вовремя
+        TIMEOUT,   // не уложился в срок — отменён
+        FAILED,    // ошибка запроса
+        REJECTED   // пул занят — запрос не запускался
+    }
+
+    public static final int DEFAULT_LIMIT = 30;
+    public static final int MAX_LIMIT = 100;
+
+    // больше одному источнику в общем списке всё равно не показать
+    private static final int PER_SOURCE_LIMIT = 20;
+
+    public static class GlobalHit {
+        private final Source source;
+        private final Long id;
+        private final String label;
+        private final double score;
+
+        GlobalHit(Source source, Long id, String label, double score) {
+            this.source = source;
+            this.id = id;
+            this.label = label;
+            this.score = score;
+        }
+
+        public Source getSource() { return source; }
+        public Long getId() { return id; }
+        public String getLabel() { return label; }
+        public double getScore() { return score; }
+    }
+
+    public static class SourceStatus {
+        private final Source source;
+        private final SourceState state;
+        private final int found;
+        private final long millis;
+
+        SourceStatus(Source source, SourceState state, int found, long millis) {
+            this.source = source;
+            this.state = state;
+            this.found = found;
+            this.millis = millis;
+        }
+
+        public Source getSource() { return source; }
+        public SourceState getState() { return state; }
+        public int getFound() { return found; }
+        public long getMillis() { return millis; }
+    }
+
+    public static class GlobalSearchResult {
+        private final String query;
+        private final List<GlobalHit> hits;
+        private final List<SourceStatus> sources;
+
+        GlobalSearchResult(String query, List<GlobalHit> hits, List<SourceStatus> sources) {
+            this.query = query;
+            this.hits = hits;
+            this.sources = sources;
+        }
+
+        public String getQuery() { return query; }
+        public List<GlobalHit> getHits() { return hits; }
+        public List<SourceStatus> getSources() { return sources; }
+
+        // часть источников не ответила — список может быть неполным
+        public boolean isPartial() {
+            return sources.stream().anyMatch(s -> s.getState() != SourceState.OK);
+        }
+    }
+
+    // источник не успел начать запрос до срока
+    private static final class SourceTimedOut extends RuntimeException {
+        SourceTimedOut() {
+            super(null, null, false, false);
+        }
+    }
+
+    private final StudentService studentService;
+    private final TeacherRepository teacherRepository;
+    private final GroupRepository groupRepository;
+    private final SubjectRepository subjectRepository;
+    private final RoomRepository roomRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final Duration budget;
+    private final ExecutorService executor;
+
+    public GlobalSearchService(StudentService studentService,
+                               TeacherRepository teacherRepository,
+                               GroupRepository groupRepository,
+                               SubjectRepository subjectRepository,
+                               RoomRepository roomRepository,
+                               JdbcTemplate jdbcTemplate,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${artschool.global-search.budget:PT0.3S}") Duration budget,
+                               @Value("${artschool.global-search.threads:8}") int threads) {
+        this.studentService = studentService;
+        this.teacherRepository = teacherRepository;
+        this.groupRepository = groupRepository;
+        this.subjectRepository = subjectRepository;
+        this.roomRepository = roomRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.budget = budget;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads * 4),
+                r -> {
+                    Thread t = new Thread(r, "global-search-" + threadNumber.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public GlobalSearchResult search(String query, Integer limit) {
+        String text = (query == null) ? "" : query.trim();
+        String[] tokens = NameSearchIndex.normalize(text).trim().split(" ");
+        if (tokens[0].isEmpty()) {
+            return new GlobalSearchResult(text, List.of(), List.of());
+        }
+        int max = (limit == null) ? DEFAULT_LIMIT : Math.max(1, Math.min(limit, MAX_LIMIT));
+
+        long started = System.nanoTime();
+        long deadline = started + budget.toNanos();
+
+        Map<Source, Future<List<GlobalHit>>> futures = new EnumMap<>(Source.class);
+        Map<Source, Long> finished = new ConcurrentHashMap<>();
+        List<SourceStatus> statuses = new ArrayList<>();
+        for (Source source : Source.values()) {
+            try {
+                futures.put(source, executor.submit(() -> {
+                    try {
+                        return findWithin(source, text, tokens, deadline);
+                    } finally {
+                        finished.put(source, System.nanoTime());
+                    }
+                }));
+            } catch (RejectedExecutionException ex) {
+                statuses.add(new SourceStatus(source, SourceState.REJECTED, 0, 0));
+            }
+        }
+
+        List<GlobalHit> hits = new ArrayList<>();
+        for (Map.Entry<Source, Future<List<GlobalHit>>> e : futures.entrySet()) {
+            Source source = e.getKey();
+            Future<List<GlobalHit>> future = e.getValue();
+            try {
+                // get(0) у готового результата возвращает его сразу
+                List<GlobalHit> found = future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                hits.addAll(found);
+                statuses.add(new SourceStatus(source, SourceState.OK, found.size(),
+                        millisSince(started, finished.getOrDefault(source, System.nanoTime()))));
+            } catch (TimeoutException ex) {
+                future.cancel(true);
+                statuses.add(new SourceStatus(source, SourceState.TIMEOUT, 0, millisSince(started, System.nanoTime())));
+            } catch (ExecutionException ex) {
+                SourceState state = (ex.getCause() instanceof SourceTimedOut) ? SourceState.TIMEOUT : SourceState.FAILED;
+                statuses.add(new SourceStatus(source, state, 0,
+                        millisSince(started, finished.getOrDefault(source, System.nanoTime()))));
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                future.cancel(true);
+                statuses.add(new SourceStatus(source, SourceState.TIMEOUT, 0, millisSince(started, System.nanoTime())));
+            }
+        }
+        statuses.sort(Comparator.comparing(SourceStatus::getSource));
+
+        hits.sort(Comparator.comparingDouble(GlobalHit::getScore).reversed()
+                .thenComparingInt(h -> h.getLabel().length())
+                .thenComparing(GlobalHit::getLabel));
+        return new GlobalSearchResult(text,
+                hits.size() > max ? new ArrayList<>(hits.subList(0, max)) : hits,
+                statuses);
+    }
+
+    // ===== Источники: существующие методы поиска репозиториев =====
+
+    // Запрос источника с ограничением по времени до deadline (System.nanoTime()).
+    // SET LOCAL действует до конца транзакции; репозитории и StudentService.searchTop
+    // присоединяются к ней и работают на том же соединении.
+    private List<GlobalHit> findWithin(Source source, String text, String[] tokens, long deadline) {
+        long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+        if (remainingMillis <= 0) {
+            throw new SourceTimedOut(); // срок вышел, пока задача ждала в очереди, — запрос не запускаем
+        }
+        return readOnlyTransaction.execute(status -> {
+            jdbcTemplate.execute("set local statement_timeout = " + remainingMillis);
+            return find(source, text, tokens);
+        });
+    }
+
+    private List<GlobalHit> find(Source source, String text, String[] tokens) {
+        List<GlobalHit> hits = new ArrayList<>();
+        switch (source) {
+            case STUDENT -> {
+                for (Student s : studentService.searchTop(text, PER_SOURCE_LIMIT)) {
+                    hits.add(hit(source, s.getId(), tokens, s.getFullName(), null));
+                }
+            }
+            case TEACHER -> {
+                for (Teacher t : teacherRepository
+                        .findByFullNameContainingIgnoreCaseOrSpecializationContainingIgnoreCase(text, text)) {
+                    hits.add(hit(source, t.getId(), tokens, t.getFullName(), t.getSpecialization()));
+                }
+            }
+            case GROUP -> {
+                for (Group g : groupRepository.findByNameContainingIgnoreCaseOrCodeContainingIgnoreCase(text, text)) {
+                    hits.add(hit(source, g.getId(), tokens, g.getCode(), g.getName()));
+                }
+            }
+            case SUBJECT -> {
+                for (Subject s : subjectRepository.findByNameContainingIgnoreCaseOrCodeContainingIgnoreCase(text, text)) {
+                    hits.add(hit(source, s.getId(), tokens, s.getCode(), s.getName()));
+                }
+            }
+            case ROOM -> {
+                for (Room r : roomRepository
+                        .findByCodeContainingIgnoreCaseOrDescriptionContainingIgnoreCase(text, text)) {
+                    hits.add(hit(source, r.getId(), tokens, r.getCode(), r.getDescription()));
+                }
+            }
+        }
+        hits.sort(Comparator.comparingDouble(GlobalHit::getScore).reversed());
+        return hits.size() > PER_SOURCE_LIMIT ? new ArrayList<>(hits.subList(0, PER_SOURCE_LIMIT)) : hits;
+    }
+
+    // подпись «главное — дополнительное»; оценка — лучшая из двух, совпадение
+    // в дополнительном поле (специализация, название, описание) стоит вдвое меньше
+    private static GlobalHit hit(Source source, Long id, String[] tokens, String main, String extra) {
+        boolean hasExtra = extra != null && !extra.isBlank();
+        double score = Math.max(relevance(tokens, main), hasExtra ? relevance(tokens, extra) / 2 : 0);
+        return new GlobalHit(source, id, hasExtra ? main + " — " + extra : main, score);
+    }
+
+    // 0..1: полное совпадение — 1; иначе среднее по словам запроса:
+    // целое слово — 0.9, начало слова — 0.6, середина — 0.3, нет — 0
+    static double relevance(String[] tokens, String value) {
+        if (value == null) {
+            return 0;
+        }
+        String text = NameSearchIndex.normalize(value);
+        if (text.trim().equals(String.join(" ", tokens))) {
+            return 1;
+        }
+        double sum = 0;
+        for (String t : tokens) {
+            int wordStart = text.indexOf(" " + t);
+            if (wordStart >= 0) {
+                sum += text.startsWith(" ", wordStart + 1 + t.length()) ? 0.9 : 0.6;
+            } else if (text.contains(t)) {
+                sum += 0.3;
+            }
+        }
+        return sum / tokens.length;
+    }
+
+    private static long millisSince(long startedNanos, long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(Math.max(0, nanos - startedNanos));
+    }
+}
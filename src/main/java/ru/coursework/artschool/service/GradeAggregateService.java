@@ -0,0 +1,210 @@
+package ru.coursework.artschool.service;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.coursework.artschool.model.Grade;
+import ru.coursework.artschool.model.GradeAggregate;
+import ru.coursework.artschool.model.GradeAggregate.Scope;
+import ru.coursework.artschool.repository.GradeAggregateRepository;
+import ru.coursework.artschool.repository.GradeRepository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+// Накопительные агрегаты оценок (сумма и количество) по группам, предметам и ученикам.
+// Изменяются в той же транзакции, что и сама оценка; читаются готовыми строками.
+@Service
+public class GradeAggregateService {
+
+    private static final String INSERT_PREFIX =
+            "insert into grade_aggregates (scope, group_id, subject_id, student_id, grade_sum, grade_count) ";
+
+    // атомарное приращение: одновременные записи разных учителей не теряют друг друга
+    private static final String UPSERT_SUFFIX =
+            " on conflict (scope, group_id, subject_id, student_id) do update " +
+            "set grade_sum = grade_aggregates.grade_sum + excluded.grade_sum, " +
+            "    grade_count = grade_aggregates.grade_count + excluded.grade_count";
+
+    private static final String UPSERT_SQL =
+            INSERT_PREFIX + "values (?, ?, ?, ?, ?, ?)" + UPSERT_SUFFIX;
+
+    private final GradeAggregateRepository gradeAggregateRepository;
+    private final GradeRepository gradeRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public GradeAggregateService(GradeAggregateRepository gradeAggregateRepository,
+                                 GradeRepository gradeRepository,
+                                 JdbcTemplate jdbcTemplate,
+                                 ApplicationEventPublisher eventPublisher) {
+        this.gradeAggregateRepository = gradeAggregateRepository;
+        this.gradeRepository = gradeRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+    }
+
+    // ===== Запись =====
+
+    // Изменение одной оценки: +value/+1 при создании, (new - old)/0 при правке, -value/-1 при удалении.
+    // Строки обновляются всегда в одном порядке, чтобы параллельные транзакции не ловили deadlock.
+    @Transactional
+    public void applyGradeChange(Long studentId, Long groupId, Long subjectId,
+                                 long sumDelta, long countDelta) {
+        if (sumDelta == 0 && countDelta == 0) {
+            return;
+        }
+
+        List<Object[]> rows = new ArrayList<>(Scope.values().length);
+        rows.add(row(Scope.GROUP, groupId, 0L, 0L, sumDelta, countDelta));
+        rows.add(row(Scope.SUBJECT, 0L, subjectId, 0L, sumDelta, countDelta));
+        rows.add(row(Scope.GROUP_SUBJECT, groupId, subjectId, 0L, sumDelta, countDelta));
+        rows.add(row(Scope.STUDENT, 0L, 0L, studentId, sumDelta, countDelta));
+        rows.add(row(Scope.STUDENT_SUBJECT, 0L, subjectId, studentId, sumDelta, countDelta));
+
+        jdbcTemplate.batchUpdate(UPSERT_SQL, rows);
+    }
+
+    // Пакет изменений по одной группе и дисциплине (массовое выставление оценок):
+    // итоги группы и предмета — одной строкой, по ученикам — строка на ученика.
+    // deltaByStudent: studentId -> {изменение суммы, изменение количества}
+    @Transactional
+    public void applyGradeChanges(Long groupId, Long subjectId, Map<Long, long[]> deltaByStudent) {
+        long sumDelta = 0;
+        long countDelta = 0;
+        for (long[] d : deltaByStudent.values()) {
+            sumDelta += d[0];
+            countDelta += d[1];
+        }
+        // итоги группы и предмета могут не измениться (одному ученику 4→5, другому 5→4),
+        // а строки учеников при этом меняются — пропускаем только нулевые
+        List<Object[]> rows = new ArrayList<>(3 + deltaByStudent.size() * 2);
+        if (sumDelta != 0 || countDelta != 0) {
+            rows.add(row(Scope.GROUP, groupId, 0L, 0L, sumDelta, countDelta));
+            rows.add(row(Scope.SUBJECT, 0L, subjectId, 0L, sumDelta, countDelta));
+            rows.add(row(Scope.GROUP_SUBJECT, groupId, subjectId, 0L, sumDelta, countDelta));
+        }
+
+        // тот же порядок блокировок, что и в applyGradeChange: ученики по возрастанию id
+        List<Long> studentIds = new ArrayList<>();
+        for (Map.Entry<Long, long[]> e : deltaByStudent.entrySet()) {
+            if (e.getValue()[0] != 0 || e.getValue()[1] != 0) {
+                studentIds.add(e.getKey());
+            }
+        }
+        Collections.sort(studentIds);
+        for (Long studentId : studentIds) {
+            long[] d = deltaByStudent.get(studentId);
+            rows.add(row(Scope.STUDENT, 0L, 0L, studentId, d[0], d[1]));
+        }
+        for (Long studentId : studentIds) {
+            long[] d = deltaByStudent.get(studentId);
+            rows.add(row(Scope.STUDENT_SUBJECT, 0L, subjectId, studentId, d[0], d[1]));
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        jdbcTemplate.batchUpdate(UPSERT_SQL, rows);
+    }
+
+    // Занятие перенесли в другую группу или по другому предмету — оценки за него
+    // переезжают вместе с ним: вычитаем из старых ключей, добавляем к новым.
+    @Transactional
+    public void moveLessonGrades(Long lessonId,
+                                 Long oldGroupId, Long oldSubjectId,
+                                 Long newGroupId, Long newSubjectId) {
+        if (oldGroupId.equals(newGroupId) && oldSubjectId.equals(newSubjectId)) {
+            return;
+        }
+        applyLessonGrades(lessonId, oldGroupId, oldSubjectId, -1);
+        applyLessonGrades(lessonId, newGroupId, newSubjectId, 1);
+    }
+
+    private void applyLessonGrades(Long lessonId, Long groupId, Long subjectId, int sign) {
+        String totals = "select ?, ?, ?, 0, ? * sum(g.value), ? * count(*) " +
+                "from grades g where g.lesson_id = ? having count(*) > 0";
+
+        jdbcTemplate.update(INSERT_PREFIX + totals + UPSERT_SUFFIX,
+                Scope.GROUP.name(), groupId, 0L, sign, sign, lessonId);
+        jdbcTemplate.update(INSERT_PREFIX + totals + UPSERT_SUFFIX,
+                Scope.SUBJECT.name(), 0L, subjectId, sign, sign, lessonId);
+        jdbcTemplate.update(INSERT_PREFIX + totals + UPSERT_SUFFIX,
+                Scope.GROUP_SUBJECT.name(), groupId, subjectId, sign, sign, lessonId);
+
+        // итог по ученику не зависит от группы и предмета занятия — его не трогаем
+        jdbcTemplate.update(INSERT_PREFIX +
+                        "select ?, 0, ?, g.student_id, ? * g.value, ? " +
+                        "from grades g where g.lesson_id = ?" + UPSERT_SUFFIX,
+                Scope.STUDENT_SUBJECT.name(), subjectId, sign, sign, lessonId);
+    }
+
+    // Полный пересчёт из таблицы оценок — для устранения расхождений.
+    // Записи оценок на время пересчёта блокируются, чтобы не потерять параллельные изменения.
+    @Transactional
+    public void rebuild() {
+        jdbcTemplate.execute("lock table grades in share mode");
+        jdbcTemplate.execute("lock table grade_aggregates in exclusive mode");
+
+        jdbcTemplate.update("delete from grade_aggregates");
+
+        jdbcTemplate.update(INSERT_PREFIX +
+                "select 'GROUP', l.group_id, 0, 0, sum(g.value), count(*) " +
+                "from grades g join lessons l on l.id = g.lesson_id " +
+                "group by l.group_id");
+        jdbcTemplate.update(INSERT_PREFIX +
+                "select 'SUBJECT', 0, l.subject_id, 0, sum(g.value), count(*) " +
+                "from grades g join lessons l on l.id = g.lesson_id " +
+                "group by l.subject_id");
+        jdbcTemplate.update(INSERT_PREFIX +
+                "select 'GROUP_SUBJECT', l.group_id, l.subject_id, 0, sum(g.value), count(*) " +
+                "from grades g join lessons l on l.id = g.lesson_id " +
+                "group by l.group_id, l.subject_id");
+        jdbcTemplate.update(INSERT_PREFIX +
+                "select 'STUDENT', 0, 0, g.student_id, sum(g.value), count(*) " +
+                "from grades g " +
+                "group by g.student_id");
+        jdbcTemplate.update(INSERT_PREFIX +
+                "select 'STUDENT_SUBJECT', 0, l.subject_id, g.student_id, sum(g.value), count(*) " +
+                "from grades g join lessons l on l.id = g.lesson_id " +
+                "group by l.subject_id, g.student_id");
+
+        eventPublisher.publishEvent(new EntityChangedEvent(Grade.class, null));
+    }
+
+    // при первом запуске на существующей базе агрегатов ещё нет
+    @Transactional
+    public void rebuildIfEmpty() {
+        if (gradeAggregateRepository.count() == 0 && gradeRepository.count() > 0) {
+            rebuild();
+        }
+    }
+
+    private static Object[] row(Scope scope, Long groupId, Long subjectId, Long studentId,
+                                long sumDelta, long countDelta) {
+        return new Object[]{scope.name(), groupId, subjectId, studentId, sumDelta, countDelta};
+    }
+
+    // ===== Чтение =====
+
+    @Transactional(readOnly = true)
+    public List<GradeAggregate> getGroupAndSubjectTotals() {
+        return gradeAggregateRepository.findByScopeIn(EnumSet.of(Scope.GROUP, Scope.SUBJECT));
+    }
+
+    @Transactional(readOnly = true)
+    public List<GradeAggregateRepository.StudentSubjectTotal> getStudentSubjectTotals(Long studentId) {
+        return gradeAggregateRepository.findStudentSubjectTotals(Scope.STUDENT_SUBJECT, studentId);
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<GradeAggregate> getGroupSubjectTotal(Long groupId, Long subjectId) {
+        return gradeAggregateRepository
+                .findByScopeAndGroupIdAndSubjectIdAndStudentId(Scope.GROUP_SUBJECT, groupId, subjectId, 0L);
+    }
+}
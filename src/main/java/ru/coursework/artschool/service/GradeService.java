@@ -1,12 +1,17 @@
 package ru.coursework.artschool.service;
 
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.coursework.artschool.model.*;
 import ru.coursework.artschool.repository.*;
 import ru.coursework.artschool.model.Subject;
 
+import java.sql.Timestamp;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -16,20 +21,129 @@ public class GradeService {
     private final GradeRepository gradeRepository;
     private final StudentRepository studentRepository;
     private final LessonRepository lessonRepository;
+    private final GradeAggregateService gradeAggregateService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final JdbcTemplate jdbcTemplate;
 
     public GradeService(GradeRepository gradeRepository,
                         StudentRepository studentRepository,
-                        LessonRepository lessonRepository) {
+                        LessonRepository lessonRepository,
+                        GradeAggregateService gradeAggregateService,
+                        ApplicationEventPublisher eventPublisher,
+                        JdbcTemplate jdbcTemplate) {
         this.gradeRepository = gradeRepository;
         this.studentRepository = studentRepository;
         this.lessonRepository = lessonRepository;
+        this.gradeAggregateService = gradeAggregateService;
+        this.eventPublisher = eventPublisher;
+        this.jdbcTemplate = jdbcTemplate;
     }
 
+    // Вставка без предварительной проверки: дубликат отсекает uk_grade_student_lesson
+    private static final String INSERT_IF_ABSENT_SQL =
+            "insert into grades (student_id, lesson_id, value, comment, created_at, updated_at) " +
+                    "values (?, ?, ?, ?, now(), now()) " +
+                    "on conflict (student_id, lesson_id) do nothing " +
+                    "returning id";
+
+    // Текущая оценка ученика за занятие, заблокированная до конца транзакции:
+    // прежнее значение для дельты агрегатов не изменится до нашего UPDATE
+    private static final String LOCK_SQL =
+            "select id, value, comment from grades where student_id = ? and lesson_id = ? for update";
+
+    public enum UpsertOutcome {
+        CREATED,
+        UPDATED,
+        UNCHANGED
+    }
+
+    public static class UpsertResult {
+        private final Long gradeId;
+        private final UpsertOutcome outcome;
+
+        public UpsertResult(Long gradeId, UpsertOutcome outcome) {
+            this.gradeId = gradeId;
+            this.outcome = outcome;
+        }
+
+        public Long getGradeId() {
+            return gradeId;
+        }
+
+        public UpsertOutcome getOutcome() {
+            return outcome;
+        }
+    }
+
+    // Возвращает id новой оценки
     @Transactional
-    public Grade createFromForm(GradeForm form) {
-        Student student = studentRepository.findById(form.getStudentId())
+    public Long createFromForm(GradeForm form) {
+        Lesson lesson = resolveLessonForStudent(form.getStudentId(), form.getLessonId());
+
+        List<Long> ids = jdbcTemplate.queryForList(INSERT_IF_ABSENT_SQL, Long.class,
+                form.getStudentId(), lesson.getId(), form.getValue(), form.getComment());
+        if (ids.isEmpty()) {
+            throw new IllegalArgumentException("Для этого ученика за это занятие оценка уже существует");
+        }
+
+        Long id = ids.get(0);
+        gradeAggregateService.applyGradeChange(
+                form.getStudentId(), lesson.getGroup().getId(), lesson.getSubject().getId(),
+                form.getValue(), 1);
+        eventPublisher.publishEvent(new EntityChangedEvent(Grade.class, id));
+        return id;
+    }
+
+    // Вставка или изменение оценки плюс дельта агрегатов; проверки — на вызывающей стороне.
+    // Существующая строка сначала блокируется (SELECT ... FOR UPDATE), поэтому параллельная
+    // правка либо уже видна, либо ждёт нас. Если строки нет, а параллельная транзакция
+    // вставила её раньше нас, insert ... do nothing дождётся её коммита, и второй проход
+    // найдёт строку уже блокировкой.
+    private UpsertResult upsertRow(Long studentId, Long lessonId, Long groupId, Long subjectId,
+                                   int value, String comment) {
+        for (int attempt = 0; attempt < 2; attempt++) {
+            List<LockedGrade> current = jdbcTemplate.query(LOCK_SQL, (rs, rowNum) ->
+                    new LockedGrade(rs.getLong("id"), rs.getInt("value"), rs.getString("comment")),
+                    studentId, lessonId);
+
+            if (!current.isEmpty()) {
+                LockedGrade old = current.get(0);
+                if (old.value == value && Objects.equals(old.comment, comment)) {
+                    return new UpsertResult(old.id, UpsertOutcome.UNCHANGED);
+                }
+                jdbcTemplate.update("update grades set value = ?, comment = ?, updated_at = now() where id = ?",
+                        value, comment, old.id);
+                gradeAggregateService.applyGradeChange(studentId, groupId, subjectId, value - old.value, 0);
+                return new UpsertResult(old.id, UpsertOutcome.UPDATED);
+            }
+
+            List<Long> ids = jdbcTemplate.queryForList(INSERT_IF_ABSENT_SQL, Long.class,
+                    studentId, lessonId, value, comment);
+            if (!ids.isEmpty()) {
+                gradeAggregateService.applyGradeChange(studentId, groupId, subjectId, value, 1);
+                return new UpsertResult(ids.get(0), UpsertOutcome.CREATED);
+            }
+        }
+        // строку вставили и сразу удалили параллельно — прежнее состояние неизвестно
+        throw new ConcurrencyFailureException("Оценку одновременно изменили, повторите сохранение");
+    }
+
+    private static final class LockedGrade {
+        final long id;
+        final int value;
+        final String comment;
+
+        LockedGrade(long id, int value, String comment) {
+            this.id = id;
+            this.value = value;
+            this.comment = comment;
+        }
+    }
+
+    private Lesson resolveLessonForStudent(Long studentId, Long lessonId) {
+        Student student = studentRepository.findById(studentId)
                 .orElseThrow(() -> new IllegalArgumentException("Ученик не найден"));
-        Lesson lesson = lessonRepository.findById(form.getLessonId())
+        Lesson lesson = lessonRepository.findById(lessonId)
                 .orElseThrow(() -> new IllegalArgumentException("Занятие не найдено"));
 
         // проверка: ученик должен принадлежать группе занятия
@@ -37,19 +151,7 @@ public class GradeService {
                 !student.getGroup().getId().equals(lesson.getGroup().getId())) {
             throw new IllegalArgumentException("Ученик не относится к группе этого занятия");
         }
-
-        // проверка: нет другой оценки для этого ученика за это занятие
-        if (gradeRepository.findByStudent_IdAndLesson_Id(student.getId(), lesson.getId()).isPresent()) {
-            throw new IllegalArgumentException("Для этого ученика за это занятие оценка уже существует");
-        }
-
-        Grade grade = new Grade();
-        grade.setStudent(student);
-        grade.setLesson(lesson);
-        grade.setValue(form.getValue());
-        grade.setComment(form.getComment());
-
-        return gradeRepository.save(grade);
+        return lesson;
     }
 
     @Transactional
@@ -57,15 +159,29 @@ public class GradeService {
         Grade existing = gradeRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Оценка не найдена"));
 
+        int oldValue = existing.getValue();
         existing.setValue(form.getValue());
         existing.setComment(form.getComment());
 
-        return gradeRepository.save(existing);
+        Grade saved = gradeRepository.save(existing);
+        Lesson lesson = saved.getLesson();
+        gradeAggregateService.applyGradeChange(
+                saved.getStudent().getId(), lesson.getGroup().getId(), lesson.getSubject().getId(),
+                saved.getValue() - oldValue, 0);
+        eventPublisher.publishEvent(new EntityChangedEvent(Grade.class, saved.getId()));
+        return saved;
     }
 
     @Transactional
     public void deleteById(Long id) {
-        gradeRepository.deleteById(id);
+        gradeRepository.findById(id).ifPresent(grade -> {
+            Lesson lesson = grade.getLesson();
+            gradeAggregateService.applyGradeChange(
+                    grade.getStudent().getId(), lesson.getGroup().getId(), lesson.getSubject().getId(),
+                    -grade.getValue(), -1);
+            gradeRepository.delete(grade);
+            eventPublisher.publishEvent(new EntityChangedEvent(Grade.class, id));
+        });
     }
 
     @Transactional(readOnly = true)
@@ -73,6 +189,203 @@ public class GradeService {
         return gradeRepository.findById(id);
     }
 
+    // ===== Массовое выставление оценок =====
+
+    public static class BatchResult {
+        private int created;
+        private int updated;
+        private int unchanged;
+        // номер строки пакета -> причина, по которой она не сохранена
+        private final Map<Integer, String> rowErrors = new LinkedHashMap<>();
+
+        public int getCreated() {
+            return created;
+        }
+
+        public int getUpdated() {
+            return updated;
+        }
+
+        public int getUnchanged() {
+            return unchanged;
+        }
+
+        public Map<Integer, String> getRowErrors() {
+            return rowErrors;
+        }
+
+        public boolean hasErrors() {
+            return !rowErrors.isEmpty();
+        }
+    }
+
+    // Форма для заполнения столбца журнала: по строке на ученика, с уже выставленными оценками
+    @Transactional(readOnly = true)
+    public GradeBatchForm prepareBatchForm(Long groupId, Long subjectId, Long lessonId, List<Student> students) {
+        Map<Long, GradeRepository.BatchGradeRow> existingByStudent = new HashMap<>();
+        for (GradeRepository.BatchGradeRow r : gradeRepository.findBatchRows(List.of(lessonId))) {
+            existingByStudent.put(r.getStudentId(), r);
+        }
+
+        GradeBatchForm form = new GradeBatchForm();
+        form.setGroupId(groupId);
+        form.setSubjectId(subjectId);
+        form.setLessonId(lessonId);
+
+        for (Student s : students) {
+            GradeBatchForm.Entry e = new GradeBatchForm.Entry();
+            e.setStudentId(s.getId());
+            e.setLessonId(lessonId);
+            e.setStudentName(s.getFullName());
+
+            GradeRepository.BatchGradeRow existing = existingByStudent.get(s.getId());
+            if (existing != null) {
+                e.setValue(existing.getGradeValue());
+                e.setComment(existing.getComment());
+            }
+            form.getEntries().add(e);
+        }
+        return form;
+    }
+
+    // Сохраняет пакет оценок одной группы по одной дисциплине.
+    // Принадлежность ученика группе, занятия — группе и дисциплине, и уже выставленные
+    // оценки проверяются тремя запросами на весь пакет; вставки и изменения уходят
+    // JDBC-пакетами. Строки с ошибками пропускаются, остальные сохраняются.
+    @Transactional
+    public BatchResult saveBatch(Long groupId, Long subjectId, List<GradeBatchForm.Entry> entries) {
+        BatchResult result = new BatchResult();
+
+        Set<Long> requestedLessonIds = new HashSet<>();
+        for (GradeBatchForm.Entry e : entries) {
+            if (e.getLessonId() != null) {
+                requestedLessonIds.add(e.getLessonId());
+            }
+        }
+        if (requestedLessonIds.isEmpty()) {
+            return result;
+        }
+
+        Set<Long> groupStudentIds = studentRepository.findIdsByGroupId(groupId);
+        Set<Long> lessonIds = lessonRepository.findIdsOfGroupAndSubject(groupId, subjectId, requestedLessonIds);
+
+        // (studentId, lessonId) -> уже выставленная оценка
+        Map<List<Long>, GradeRepository.BatchGradeRow> existing = new HashMap<>();
+        if (!lessonIds.isEmpty()) {
+            for (GradeRepository.BatchGradeRow r : gradeRepository.findBatchRowsForUpdate(lessonIds)) {
+                existing.put(List.of(r.getStudentId(), r.getLessonId()), r);
+            }
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> inserts = new ArrayList<>();
+        List<Object[]> updates = new ArrayList<>();
+        Set<List<Long>> seen = new HashSet<>();
+        Map<Long, long[]> deltaByStudent = new HashMap<>();
+        List<GradeBatchForm.Entry> insertedEntries = new ArrayList<>();
+        List<Integer> updatedRows = new ArrayList<>();
+
+        for (int i = 0; i < entries.size(); i++) {
+            GradeBatchForm.Entry e = entries.get(i);
+            if (e.getValue() == null) {
+                continue; // пустая ячейка
+            }
+
+            if (e.getValue() < 1 || e.getValue() > 5) {
+                result.rowErrors.put(i, "Оценка должна быть от 1 до 5");
+                continue;
+            }
+            if (e.getLessonId() == null || !lessonIds.contains(e.getLessonId())) {
+                result.rowErrors.put(i, "Занятие не найдено");
+                continue;
+            }
+            if (e.getStudentId() == null || !groupStudentIds.contains(e.getStudentId())) {
+                result.rowErrors.put(i, "Ученик не относится к группе этого занятия");
+                continue;
+            }
+
+            List<Long> key = List.of(e.getStudentId(), e.getLessonId());
+            if (!seen.add(key)) {
+                result.rowErrors.put(i, "Оценка за это занятие указана для ученика дважды");
+                continue;
+            }
+
+            GradeRepository.BatchGradeRow old = existing.get(key);
+            if (old == null) {
+                inserts.add(new Object[]{e.getStudentId(), e.getLessonId(), e.getValue(), e.getComment(), now, now});
+                insertedEntries.add(e);
+            } else if (!old.getGradeValue().equals(e.getValue())
+                    || !Objects.equals(old.getComment(), e.getComment())) {
+                updates.add(new Object[]{e.getValue(), e.getComment(), now, old.getGradeId()});
+                updatedRows.add(i);
+            } else {
+                result.unchanged++;
+            }
+        }
+
+        List<GradeBatchForm.Entry> conflicted = new ArrayList<>();
+        if (!inserts.isEmpty()) {
+            int[] counts = jdbcTemplate.batchUpdate(
+                    "insert into grades (student_id, lesson_id, value, comment, created_at, updated_at) " +
+                            "values (?, ?, ?, ?, ?, ?) " +
+                            "on conflict (student_id, lesson_id) do nothing",
+                    inserts);
+            for (int i = 0; i < counts.length; i++) {
+                GradeBatchForm.Entry e = insertedEntries.get(i);
+                if (counts[i] == 0) {
+                    // оценку успели выставить параллельно после предзагрузки
+                    conflicted.add(e);
+                } else {
+                    addDelta(deltaByStudent, e.getStudentId(), e.getValue(), 1);
+                    result.created++;
+                }
+            }
+        }
+        if (!updates.isEmpty()) {
+            int[] counts = jdbcTemplate.batchUpdate(
+                    "update grades set value = ?, comment = ?, updated_at = ? where id = ?",
+                    updates);
+            for (int i = 0; i < counts.length; i++) {
+                int row = updatedRows.get(i);
+                GradeBatchForm.Entry e = entries.get(row);
+                if (counts[i] == 0) {
+                    result.rowErrors.put(row, "Оценка была удалена, повторите сохранение");
+                } else {
+                    GradeRepository.BatchGradeRow old = existing.get(List.of(e.getStudentId(), e.getLessonId()));
+                    addDelta(deltaByStudent, e.getStudentId(), e.getValue() - old.getGradeValue(), 0);
+                    result.updated++;
+                }
+            }
+        }
+
+        boolean changed = result.created > 0 || result.updated > 0;
+        if (changed) {
+            gradeAggregateService.applyGradeChanges(groupId, subjectId, deltaByStudent);
+        }
+
+        for (GradeBatchForm.Entry e : conflicted) {
+            UpsertResult r = upsertRow(e.getStudentId(), e.getLessonId(), groupId, subjectId,
+                    e.getValue(), e.getComment());
+            switch (r.getOutcome()) {
+                case CREATED -> result.created++;
+                case UPDATED -> result.updated++;
+                default -> result.unchanged++;
+            }
+            changed |= r.getOutcome() != UpsertOutcome.UNCHANGED;
+        }
+
+        if (changed) {
+            eventPublisher.publishEvent(new EntityChangedEvent(Grade.class, null));
+        }
+        return result;
+    }
+
+    private static void addDelta(Map<Long, long[]> deltaByStudent, Long studentId, long sum, long count) {
+        long[] d = deltaByStudent.computeIfAbsent(studentId, id -> new long[2]);
+        d[0] += sum;
+        d[1] += count;
+    }
+
     // ===== Данные для журнала по группе и предмету =====
 
     @Transactional(readOnly = true)
@@ -83,57 +396,85 @@ public class GradeService {
             LocalDate toDate,
             List<Student> students) {
 
-        List<Lesson> lessons;
+        // только (id, дата, время) занятий и (ученик, занятие, id, значение) оценок:
+        // ни Grade, ни Lesson в контекст персистентности не попадают
+        List<LessonRepository.JournalLessonHeader> lessons;
+        List<GradeRepository.JournalCell> cells;
 
         if (fromDate != null && toDate != null) {
             lessons = lessonRepository
-                    .findByGroup_IdAndSubject_IdAndDateBetweenOrderByDateAscStartTimeAsc(
+                    .findHeadersByGroup_IdAndSubject_IdAndDateBetweenOrderByDateAscStartTimeAsc(
                             group.getId(),
                             subject.getId(),
                             fromDate,
                             toDate
                     );
+            // оценки — ровно за то же окно, что и занятия
+            cells = lessons.isEmpty()
+                    ? List.of()
+                    : gradeRepository.findJournalCellsBetween(group.getId(), subject.getId(), fromDate, toDate);
         } else {
             lessons = lessonRepository
-                    .findByGroup_IdAndSubject_IdOrderByDateAscStartTimeAsc(
+                    .findHeadersByGroup_IdAndSubject_IdOrderByDateAscStartTimeAsc(
                             group.getId(),
                             subject.getId()
                     );
+            cells = lessons.isEmpty()
+                    ? List.of()
+                    : gradeRepository.findJournalCells(group.getId(), subject.getId());
         }
 
-        List<Grade> grades = gradeRepository
-                .findByLesson_Group_IdAndLesson_Subject_Id(group.getId(), subject.getId());
-
-        // индекс по (studentId, lessonId)
-        Map<Long, Map<Long, Grade>> gradeByStudentThenLesson = new HashMap<>();
-
-        for (Grade g : grades) {
-            Long sId = g.getStudent().getId();
-            Long lId = g.getLesson().getId();
-
-            gradeByStudentThenLesson
-                    .computeIfAbsent(sId, k -> new HashMap<>())
-                    .put(lId, g);
+        JournalData data = new JournalData(lessons, students);
+        for (GradeRepository.JournalCell c : cells) {
+            data.put(c.getStudentId(), c.getLessonId(), c.getGradeId(), c.getGradeValue());
         }
-
-        return new JournalData(lessons, students, gradeByStudentThenLesson);
+        return data;
     }
 
-    // DTO-контейнер для журнала
+    // DTO-контейнер для журнала.
+    // Ученики — строки, занятия — столбцы; ячейки лежат в плоских массивах,
+    // поэтому шаблон получает оценку по индексам строки и столбца без поиска в Map.
     public static class JournalData {
-        private final List<Lesson> lessons;
+        private final List<LessonRepository.JournalLessonHeader> lessons;
         private final List<Student> students;
-        private final Map<Long, Map<Long, Grade>> grades;
 
-        public JournalData(List<Lesson> lessons,
-                           List<Student> students,
-                           Map<Long, Map<Long, Grade>> grades) {
+        private final Map<Long, Integer> rowByStudentId;
+        private final Map<Long, Integer> columnByLessonId;
+
+        private final int columns;
+        private final byte[] values;   // 0 — оценки нет (допустимые оценки 1..5)
+        private final long[] gradeIds; // для ссылок «Изм.»
+
+        public JournalData(List<LessonRepository.JournalLessonHeader> lessons, List<Student> students) {
             this.lessons = lessons;
             this.students = students;
-            this.grades = grades;
+            this.columns = lessons.size();
+
+            this.rowByStudentId = new HashMap<>(students.size() * 2);
+            for (int i = 0; i < students.size(); i++) {
+                rowByStudentId.put(students.get(i).getId(), i);
+            }
+            this.columnByLessonId = new HashMap<>(lessons.size() * 2);
+            for (int i = 0; i < lessons.size(); i++) {
+                columnByLessonId.put(lessons.get(i).getId(), i);
+            }
+
+            this.values = new byte[students.size() * columns];
+            this.gradeIds = new long[students.size() * columns];
+        }
+
+        // заполнение при построении; оценки учеников не из списка (перевелись) пропускаются
+        void put(Long studentId, Long lessonId, long gradeId, int value) {
+            Integer row = rowByStudentId.get(studentId);
+            Integer column = columnByLessonId.get(lessonId);
+            if (row == null || column == null) return;
+
+            int cell = row * columns + column;
+            values[cell] = (byte) value;
+            gradeIds[cell] = gradeId;
         }
 
-        public List<Lesson> getLessons() {
+        public List<LessonRepository.JournalLessonHeader> getLessons() {
             return lessons;
         }
 
@@ -141,29 +482,40 @@ public class GradeService {
             return students;
         }
 
-        public Map<Long, Map<Long, Grade>> getGrades() {
-            return grades;
+        public boolean hasGrade(int row, int column) {
+            return values[row * columns + column] != 0;
+        }
+
+        public int getValue(int row, int column) {
+            return values[row * columns + column];
         }
 
-        public Grade getGradeFor(Long studentId, Long lessonId) {
-            Map<Long, Grade> byLesson = grades.get(studentId);
-            if (byLesson == null) return null;
-            return byLesson.get(lessonId);
+        public long getGradeId(int row, int column) {
+            return gradeIds[row * columns + column];
         }
     }
     // ===== Успеваемость одного ученика =====
 
     public static class SubjectStats {
-        private Subject subject;
+        private String subjectCode;
+        private String subjectName;
         private long count;
-        private int sum;
+        private long sum;
+
+        public String getSubjectCode() {
+            return subjectCode;
+        }
+
+        public void setSubjectCode(String subjectCode) {
+            this.subjectCode = subjectCode;
+        }
 
-        public Subject getSubject() {
-            return subject;
+        public String getSubjectName() {
+            return subjectName;
         }
 
-        public void setSubject(Subject subject) {
-            this.subject = subject;
+        public void setSubjectName(String subjectName) {
+            this.subjectName = subjectName;
         }
 
         public long getCount() {
@@ -174,11 +526,11 @@ public class GradeService {
             this.count = count;
         }
 
-        public int getSum() {
+        public long getSum() {
             return sum;
         }
 
-        public void setSum(int sum) {
+        public void setSum(long sum) {
             this.sum = sum;
         }
 
@@ -188,17 +540,19 @@ public class GradeService {
     }
 
     public static class StudentPerformance {
-        private final List<Grade> grades;
+        private final List<GradeRepository.StudentGradeRow> grades;
         private final List<SubjectStats> subjectStats;
         private final Double overallAverage;
 
-        public StudentPerformance(List<Grade> grades, List<SubjectStats> subjectStats, Double overallAverage) {
+        public StudentPerformance(List<GradeRepository.StudentGradeRow> grades,
+                                  List<SubjectStats> subjectStats,
+                                  Double overallAverage) {
             this.grades = grades;
             this.subjectStats = subjectStats;
             this.overallAverage = overallAverage;
         }
 
-        public List<Grade> getGrades() {
+        public List<GradeRepository.StudentGradeRow> getGrades() {
             return grades;
         }
 
@@ -211,49 +565,31 @@ public class GradeService {
         }
     }
 
+    // Два запроса при любом числе оценок: список оценок (уже упорядочен в БД)
+    // и итоги по дисциплинам из накопительных агрегатов
     @Transactional(readOnly = true)
     public StudentPerformance getStudentPerformance(Long studentId) {
-        List<Grade> grades = gradeRepository.findByStudent_Id(studentId);
+        List<GradeRepository.StudentGradeRow> grades = gradeRepository.findStudentGradeRows(studentId);
 
-        // сортируем по дате и времени занятия
-        grades.sort(
-                java.util.Comparator
-                        .comparing((Grade g) -> g.getLesson().getDate())
-                        .thenComparing(g -> g.getLesson().getStartTime())
-        );
-
-        java.util.Map<Long, SubjectStats> statsMap = new java.util.LinkedHashMap<>();
-
-        int totalSum = 0;
+        List<SubjectStats> subjectStats = new ArrayList<>();
+        long totalSum = 0;
         long totalCount = 0;
-
-        for (Grade g : grades) {
-            Subject subject = g.getLesson().getSubject();
-            Long subjectId = subject.getId();
-
-            SubjectStats stats = statsMap.get(subjectId);
-            if (stats == null) {
-                stats = new SubjectStats();
-                stats.setSubject(subject);
-                statsMap.put(subjectId, stats);
-            }
-
-            stats.setCount(stats.getCount() + 1);
-            stats.setSum(stats.getSum() + g.getValue());
-
-            totalCount++;
-            totalSum += g.getValue();
+        for (GradeAggregateRepository.StudentSubjectTotal t : gradeAggregateService.getStudentSubjectTotals(studentId)) {
+            SubjectStats stats = new SubjectStats();
+            stats.setSubjectCode(t.getSubjectCode());
+            stats.setSubjectName(t.getSubjectName());
+            stats.setCount(t.getGradeCount());
+            stats.setSum(t.getGradeSum());
+            subjectStats.add(stats);
+
+            totalSum += t.getGradeSum();
+            totalCount += t.getGradeCount();
         }
 
-        Double overallAverage = (totalCount == 0)
-                ? null
-                : (double) totalSum / totalCount;
+        // общий средний — по тем же итогам, отдельный запрос к строке STUDENT не нужен
+        Double overallAverage = totalCount == 0 ? null : (double) totalSum / totalCount;
 
-        return new StudentPerformance(
-                grades,
-                new java.util.ArrayList<>(statsMap.values()),
-                overallAverage
-        );
+        return new StudentPerformance(grades, subjectStats, overallAverage);
     }
 
 }
@@ -1,5 +1,6 @@
 package ru.coursework.artschool.service;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.coursework.artschool.model.Group;
@@ -16,11 +17,14 @@ public class GroupService {
 
     private final GroupRepository groupRepository;
     private final TeacherRepository teacherRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     public GroupService(GroupRepository groupRepository,
-                        TeacherRepository teacherRepository) {
+                        TeacherRepository teacherRepository,
+                        ApplicationEventPublisher eventPublisher) {
         this.groupRepository = groupRepository;
         this.teacherRepository = teacherRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     @Transactional(readOnly = true)
@@ -37,6 +41,14 @@ public class GroupService {
         return groupRepository.findByNameContainingIgnoreCaseOrCodeContainingIgnoreCase(q, q);
     }
 
+    // Страница списка групп (по коду), поиск по коду или названию
+    @Transactional(readOnly = true)
+    public KeysetPage<Group> searchPage(String query, String cursor, int size) {
+        return KeysetPage.fetch(groupRepository,
+                KeysetPage.containsIgnoreCase(query, "code", "name"),
+                "code", Group::getCode, Group::getId, cursor, size);
+    }
+
     @Transactional(readOnly = true)
     public Optional<Group> findById(Long id) {
         return groupRepository.findById(id);
@@ -51,7 +63,9 @@ public class GroupService {
         Group group = new Group();
         applyFormToEntity(form, group);
 
-        return groupRepository.save(group);
+        Group saved = groupRepository.save(group);
+        eventPublisher.publishEvent(new EntityChangedEvent(Group.class, saved.getId()));
+        return saved;
     }
 
     @Transactional
@@ -65,12 +79,15 @@ public class GroupService {
         }
 
         applyFormToEntity(form, existing);
-        return groupRepository.save(existing);
+        Group saved = groupRepository.save(existing);
+        eventPublisher.publishEvent(new EntityChangedEvent(Group.class, id));
+        return saved;
     }
 
     @Transactional
     public void deleteById(Long id) {
         groupRepository.deleteById(id);
+        eventPublisher.publishEvent(new EntityChangedEvent(Group.class, id));
     }
 
     @Transactional(readOnly = true)
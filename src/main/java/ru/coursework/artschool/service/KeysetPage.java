@@ -0,0 +1,173 @@
+package ru.coursework.artschool.service;
+
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+// Страница списка с постраничным переходом по ключу (keyset), без OFFSET.
+//
+// Порядок — (ключ, id), где ключ — ФИО или код. Курсор хранит ключ и id крайней
+// записи страницы и направление; следующая страница — «строго после» неё по тому же
+// порядку, предыдущая — «строго до» (запрос в обратном порядке, затем разворот).
+// По составному индексу (ключ, id) любая страница стоит как первая.
+public class KeysetPage<T> {
+
+    public static final int DEFAULT_SIZE = 25;
+    public static final int MAX_SIZE = 100;
+
+    private final List<T> items;
+    private final String nextCursor;
+    private final String prevCursor;
+
+    private KeysetPage(List<T> items, String nextCursor, String prevCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.prevCursor = prevCursor;
+    }
+
+    public List<T> getItems() { return items; }
+    public String getNextCursor() { return nextCursor; }
+    public String getPrevCursor() { return prevCursor; }
+
+    public boolean isEmpty() {
+        return items.isEmpty();
+    }
+
+    public static int clampSize(Integer size) {
+        if (size == null) {
+            return DEFAULT_SIZE;
+        }
+        return Math.max(1, Math.min(size, MAX_SIZE));
+    }
+
+    // Курсор из адреса страницы: испорченный или обрезанный — null, то есть первая страница
+    // (вместо ошибки на всю страницу списка)
+    public static String usableCursor(String cursor) {
+        try {
+            return Cursor.decode(cursor) != null ? cursor : null;
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
+    // filter — условия поиска (null — без условий); keyAttribute — имя поля-ключа сущности
+    public static <T> KeysetPage<T> fetch(JpaSpecificationExecutor<T> repository,
+                                          Specification<T> filter,
+                                          String keyAttribute,
+                                          Function<T, String> keyOf,
+                                          Function<T, Long> idOf,
+                                          String cursor,
+                                          int size) {
+        Cursor from = Cursor.decode(cursor);
+        boolean backward = from != null && from.before;
+
+        Specification<T> spec = (filter != null) ? filter : (root, cq, cb) -> cb.conjunction();
+        if (from != null) {
+            spec = spec.and(seek(keyAttribute, from));
+        }
+        Sort.Direction direction = backward ? Sort.Direction.DESC : Sort.Direction.ASC;
+        Sort sort = Sort.by(direction, keyAttribute).and(Sort.by(direction, "id"));
+
+        // одна лишняя запись показывает, есть ли ещё страница в эту сторону
+        List<T> rows = new ArrayList<>(repository.findBy(spec, q -> q.sortBy(sort).limit(size + 1).all()));
+        boolean more = rows.size() > size;
+        if (more) {
+            rows.remove(rows.size() - 1);
+        }
+        if (backward) {
+            Collections.reverse(rows);
+        }
+        if (rows.isEmpty()) {
+            return new KeysetPage<>(rows, null, null);
+        }
+
+        T first = rows.get(0);
+        T last = rows.get(rows.size() - 1);
+        boolean hasNext = backward || more;
+        boolean hasPrev = backward ? more : from != null;
+        return new KeysetPage<>(rows,
+                hasNext ? new Cursor(false, keyOf.apply(last), idOf.apply(last)).encode() : null,
+                hasPrev ? new Cursor(true, keyOf.apply(first), idOf.apply(first)).encode() : null);
+    }
+
+    // поиск для страниц списков: строка встречается (без учёта регистра) хотя бы в одном из полей;
+    // пустая строка — без условий
+    public static <T> Specification<T> containsIgnoreCase(String query, String... attributes) {
+        if (query == null || query.isBlank()) {
+            return null;
+        }
+        String pattern = likePattern(query.trim().toLowerCase());
+        return (root, cq, cb) -> {
+            List<Predicate> any = new ArrayList<>();
+            for (String attribute : attributes) {
+                any.add(cb.like(cb.lower(root.get(attribute)), pattern, '\\'));
+            }
+            return cb.or(any.toArray(new Predicate[0]));
+        };
+    }
+
+    // %подстрока% без спецсимволов LIKE (экранирование — '\')
+    public static String likePattern(String text) {
+        return "%" + text.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_") + "%";
+    }
+
+    // (ключ, id) строго после курсора (или строго до — для перехода назад).
+    // Лишнее на вид условие key >= c.key (key <= c.key) даёт планировщику границу
+    // диапазона по индексу (ключ, id): без него OR не превращается в поиск по индексу,
+    // и дальняя страница читает индекс с начала, как OFFSET.
+    private static <T> Specification<T> seek(String keyAttribute, Cursor c) {
+        return (root, cq, cb) -> {
+            var key = root.<String>get(keyAttribute);
+            var id = root.<Long>get("id");
+            return c.before
+                    ? cb.and(cb.lessThanOrEqualTo(key, c.key),
+                             cb.or(cb.lessThan(key, c.key), cb.and(cb.equal(key, c.key), cb.lessThan(id, c.id))))
+                    : cb.and(cb.greaterThanOrEqualTo(key, c.key),
+                             cb.or(cb.greaterThan(key, c.key), cb.and(cb.equal(key, c.key), cb.greaterThan(id, c.id))));
+        };
+    }
+
+    // «a|id|ключ» или «b|id|ключ» в base64url
+    private static final class Cursor {
+        final boolean before;
+        final String key;
+        final long id;
+
+        Cursor(boolean before, String key, long id) {
+            this.before = before;
+            this.key = key;
+            this.id = id;
+        }
+
+        String encode() {
+            String raw = (before ? "b" : "a") + "|" + id + "|" + key;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Cursor decode(String cursor) {
+            if (cursor == null || cursor.isBlank()) {
+                return null;
+            }
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                String[] parts = raw.split("\\|", 3);
+                if (parts.length != 3 || !(parts[0].equals("a") || parts[0].equals("b"))) {
+                    throw new IllegalArgumentException("Неверная ссылка на страницу");
+                }
+                return new Cursor(parts[0].equals("b"), parts[2], Long.parseLong(parts[1]));
+            } catch (IllegalArgumentException ex) { // в том числе NumberFormatException
+                throw new IllegalArgumentException("Неверная ссылка на страницу");
+            }
+        }
+    }
+}
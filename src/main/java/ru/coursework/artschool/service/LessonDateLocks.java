@@ -0,0 +1,85 @@
+package ru.coursework.artschool.service;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Блокировки записи занятий по дням: проверка пересечений и вставка в один день
+// выполняются строго по очереди, записи в разные дни друг друга не ждут.
+//
+// Внутри процесса — отдельный ReentrantLock на каждую дату (создаётся при первом
+// захвате и удаляется, когда его никто не держит). Между узлами — транзакционная
+// advisory-блокировка PostgreSQL по номеру дня; она снимается при коммите/откате.
+// Блокировка процесса держится до завершения транзакции, то есть и после обновления
+// ScheduleIndex: следующая запись того же дня увидит занятие уже в индексе.
+@Component
+public class LessonDateLocks {
+
+    // первый ключ advisory-блокировки — чтобы не пересекаться с другими её пользователями
+    private static final int ADVISORY_NAMESPACE = 0x4c455353; // "LESS"
+
+    private static final class DateLock {
+        final ReentrantLock lock = new ReentrantLock();
+        int users; // ждут или держат; изменяется только внутри compute по своей дате
+    }
+
+    private final ConcurrentHashMap<LocalDate, DateLock> locks = new ConcurrentHashMap<>();
+    private final JdbcTemplate jdbcTemplate;
+
+    public LessonDateLocks(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Захватывает дни до конца текущей транзакции. Дни берутся по возрастанию,
+    // поэтому записи, затрагивающие несколько одинаковых дней, не попадут во взаимную блокировку.
+    public void lockDates(Collection<LocalDate> dates) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Блокировка дней занятий возможна только внутри транзакции");
+        }
+
+        List<LocalDate> acquired = new ArrayList<>();
+        try {
+            for (LocalDate date : new TreeSet<>(dates)) {
+                DateLock dateLock = locks.compute(date, (d, l) -> {
+                    DateLock result = (l != null) ? l : new DateLock();
+                    result.users++;
+                    return result;
+                });
+                dateLock.lock.lock();
+                acquired.add(date);
+                jdbcTemplate.queryForObject("select pg_advisory_xact_lock(?, ?)::text", String.class,
+                        ADVISORY_NAMESPACE, (int) date.toEpochDay());
+            }
+        } catch (RuntimeException ex) {
+            unlockAll(acquired);
+            throw ex;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                unlockAll(acquired);
+            }
+        });
+    }
+
+    private void unlockAll(List<LocalDate> dates) {
+        for (LocalDate date : dates) {
+            locks.get(date).lock.unlock();
+            release(date);
+        }
+    }
+
+    private void release(LocalDate date) {
+        locks.computeIfPresent(date, (d, l) -> --l.users == 0 ? null : l);
+    }
+}
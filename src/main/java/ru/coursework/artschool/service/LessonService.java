@@ -1,41 +1,84 @@
 package ru.coursework.artschool.service;
 
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.coursework.artschool.model.*;
 import ru.coursework.artschool.repository.*;
 import ru.coursework.artschool.model.LessonForm;
+import ru.coursework.artschool.model.LessonSeriesForm;
 
+import java.sql.SQLException;
+import java.time.DayOfWeek;
 import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalTime;
-import java.util.Comparator;
-import java.util.List;
-import java.util.Optional;
+import java.time.format.DateTimeParseException;
+import java.util.*;
 
 @Service
 public class LessonService {
 
-    private static final Duration LESSON_DURATION = Duration.ofMinutes(90);
+    public static final Duration LESSON_DURATION = Duration.ofMinutes(90);
+    // учебный день: в эти рамки ставят занятия генератор и подбор свободного времени
+    public static final LocalTime DAY_START = LocalTime.of(9, 0);
+    public static final LocalTime DAY_END = LocalTime.of(20, 0);
     private static final LocalTime LUNCH_START = LocalTime.of(13, 0);
     private static final LocalTime LUNCH_END = LocalTime.of(14, 0);
 
+    // короткие названия дней недели для форм и расписания, с понедельника
+    public static final Map<DayOfWeek, String> WEEKDAY_NAMES;
+
+    static {
+        String[] names = {"Пн", "Вт", "Ср", "Чт", "Пт", "Сб", "Вс"};
+        Map<DayOfWeek, String> map = new LinkedHashMap<>();
+        for (DayOfWeek d : DayOfWeek.values()) {
+            map.put(d, names[d.ordinal()]);
+        }
+        WEEKDAY_NAMES = Collections.unmodifiableMap(map);
+    }
+
+    // ограничения пересечений занятий из schema.sql и ресурс, который каждое из них защищает
+    private static final String EXCLUSION_VIOLATION = "23P01";
+    private static final Map<String, ScheduleIndex.Resource> TIME_CONSTRAINTS = Map.of(
+            "ex_lessons_teacher_time", ScheduleIndex.Resource.TEACHER,
+            "ex_lessons_group_time", ScheduleIndex.Resource.GROUP,
+            "ex_lessons_room_time", ScheduleIndex.Resource.ROOM);
+
     private final LessonRepository lessonRepository;
     private final SubjectRepository subjectRepository;
     private final GroupRepository groupRepository;
     private final TeacherRepository teacherRepository;
     private final RoomRepository roomRepository;
+    private final GradeAggregateService gradeAggregateService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ScheduleIndex scheduleIndex;
+    private final LessonDateLocks dateLocks;
+    private final JdbcTemplate jdbcTemplate;
 
     public LessonService(LessonRepository lessonRepository,
                          SubjectRepository subjectRepository,
                          GroupRepository groupRepository,
                          TeacherRepository teacherRepository,
-                         RoomRepository roomRepository) {
+                         RoomRepository roomRepository,
+                         GradeAggregateService gradeAggregateService,
+                         ApplicationEventPublisher eventPublisher,
+                         ScheduleIndex scheduleIndex,
+                         LessonDateLocks dateLocks,
+                         JdbcTemplate jdbcTemplate) {
         this.lessonRepository = lessonRepository;
         this.subjectRepository = subjectRepository;
         this.groupRepository = groupRepository;
         this.teacherRepository = teacherRepository;
         this.roomRepository = roomRepository;
+        this.gradeAggregateService = gradeAggregateService;
+        this.eventPublisher = eventPublisher;
+        this.scheduleIndex = scheduleIndex;
+        this.dateLocks = dateLocks;
+        this.jdbcTemplate = jdbcTemplate;
     }
 
     @Transactional(readOnly = true)
@@ -43,20 +86,118 @@ public class LessonService {
         return lessonRepository.findById(id);
     }
 
+    // занятия дня со всеми связями, по времени начала
     @Transactional(readOnly = true)
     public List<Lesson> findByDate(LocalDate date) {
-        List<Lesson> lessons = lessonRepository.findByDate(date);
-        lessons.sort(Comparator.comparing(Lesson::getStartTime));
-        return lessons;
+        return lessonRepository.findScheduleBetween(date, date);
     }
 
     @Transactional(readOnly = true)
     public List<Lesson> findByDateRange(LocalDate start, LocalDate end) {
-        List<Lesson> lessons = lessonRepository.findByDateBetween(start, end);
-        lessons.sort(Comparator
-                .comparing(Lesson::getDate)
-                .thenComparing(Lesson::getStartTime));
-        return lessons;
+        return lessonRepository.findScheduleBetween(start, end);
+    }
+
+    // ===== Календарь: неделя или месяц, всё расписание или одного ресурса =====
+
+    public enum CalendarMode {
+        DAY,
+        WEEK,
+        MONTH
+    }
+
+    public enum ScheduleScope {
+        ALL,
+        GROUP,
+        TEACHER,
+        ROOM
+    }
+
+    public static class CalendarView {
+        private final CalendarMode mode;
+        private final LocalDate start;
+        private final LocalDate end;
+        // все даты периода по порядку, в том числе без занятий
+        private final Map<LocalDate, List<Lesson>> lessonsByDate;
+        // для месяца — недели по 7 дней с понедельника (даты соседних месяцев включены)
+        private final List<List<LocalDate>> weeks;
+
+        CalendarView(CalendarMode mode, LocalDate start, LocalDate end,
+                     Map<LocalDate, List<Lesson>> lessonsByDate, List<List<LocalDate>> weeks) {
+            this.mode = mode;
+            this.start = start;
+            this.end = end;
+            this.lessonsByDate = lessonsByDate;
+            this.weeks = weeks;
+        }
+
+        public CalendarMode getMode() { return mode; }
+        public LocalDate getStart() { return start; }
+        public LocalDate getEnd() { return end; }
+        public Map<LocalDate, List<Lesson>> getLessonsByDate() { return lessonsByDate; }
+        public List<List<LocalDate>> getWeeks() { return weeks; }
+
+        public List<Lesson> lessonsOn(LocalDate date) {
+            return lessonsByDate.getOrDefault(date, List.of());
+        }
+
+        public boolean isInPeriod(LocalDate date) {
+            return !date.isBefore(start) && !date.isAfter(end);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public CalendarView getCalendar(CalendarMode mode, LocalDate date,
+                                    ScheduleScope scope, Long resourceId) {
+        LocalDate start;
+        LocalDate end;
+        switch (mode) {
+            case WEEK -> {
+                start = date.with(DayOfWeek.MONDAY);
+                end = start.plusDays(6);
+            }
+            case MONTH -> {
+                start = date.withDayOfMonth(1);
+                end = date.withDayOfMonth(date.lengthOfMonth());
+            }
+            default -> {
+                start = date;
+                end = date;
+            }
+        }
+
+        List<Lesson> lessons;
+        if (scope == ScheduleScope.ALL || resourceId == null) {
+            lessons = lessonRepository.findScheduleBetween(start, end);
+        } else {
+            lessons = switch (scope) {
+                case GROUP -> lessonRepository.findGroupScheduleBetween(start, end, resourceId);
+                case TEACHER -> lessonRepository.findTeacherScheduleBetween(start, end, resourceId);
+                default -> lessonRepository.findRoomScheduleBetween(start, end, resourceId);
+            };
+        }
+
+        // занятия уже упорядочены запросом — раскладываем по дням без сортировки
+        Map<LocalDate, List<Lesson>> byDate = new LinkedHashMap<>();
+        for (LocalDate d = start; !d.isAfter(end); d = d.plusDays(1)) {
+            byDate.put(d, new ArrayList<>());
+        }
+        for (Lesson l : lessons) {
+            byDate.get(l.getDate()).add(l);
+        }
+
+        List<List<LocalDate>> weeks = new ArrayList<>();
+        if (mode == CalendarMode.MONTH) {
+            LocalDate gridEnd = end.with(DayOfWeek.SUNDAY);
+            for (LocalDate monday = start.with(DayOfWeek.MONDAY); !monday.isAfter(gridEnd); monday = monday.plusWeeks(1)) {
+                List<LocalDate> week = new ArrayList<>(7);
+                for (int i = 0; i < 7; i++) {
+                    week.add(monday.plusDays(i));
+                }
+                weeks.add(week);
+            }
+        }
+
+        return new CalendarView(mode, start, end, byDate, weeks);
     }
 
     @Transactional
@@ -64,9 +205,16 @@ public class LessonService {
                          Long teacherId, Long roomId) {
 
         fillRelations(lesson, subjectId, groupId, teacherId, roomId);
+        if (lesson.getDate() != null) {
+            dateLocks.lockDates(List.of(lesson.getDate()));
+        }
         validateLesson(lesson, null);
 
-        return lessonRepository.save(lesson);
+        Lesson saved = saveChecked(lesson);
+        scheduleIndex.lessonSaved(null, ScheduleIndex.Slot.of(saved));
+        eventPublisher.publishEvent(new EntityChangedEvent(Lesson.class, saved.getId()));
+        eventPublisher.publishEvent(new LessonsChangedEvent(List.of(ScheduleIndex.Slot.of(saved))));
+        return saved;
     }
 
     @Transactional
@@ -76,6 +224,13 @@ public class LessonService {
         Lesson existing = lessonRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Занятие не найдено"));
 
+        ScheduleIndex.Slot before = ScheduleIndex.Slot.of(existing);
+        Long oldGroupId = existing.getGroup().getId();
+        Long oldSubjectId = existing.getSubject().getId();
+        if (form.getDate() != null) {
+            dateLocks.lockDates(List.of(existing.getDate(), form.getDate()));
+        }
+
         existing.setDate(form.getDate());
         existing.setStartTime(form.getStartTime());
         existing.setEndTime(form.getEndTime());
@@ -85,7 +240,217 @@ public class LessonService {
         fillRelations(existing, subjectId, groupId, teacherId, roomId);
         validateLesson(existing, id);
 
-        return lessonRepository.save(existing);
+        Lesson saved = saveChecked(existing);
+
+        // оценки за занятие считаются в агрегатах группы и предмета этого занятия
+        gradeAggregateService.moveLessonGrades(id, oldGroupId, oldSubjectId,
+                groupId, subjectId);
+
+        scheduleIndex.lessonSaved(before, ScheduleIndex.Slot.of(saved));
+        eventPublisher.publishEvent(new EntityChangedEvent(Lesson.class, id));
+        eventPublisher.publishEvent(new LessonsChangedEvent(List.of(before, ScheduleIndex.Slot.of(saved))));
+        return saved;
+    }
+
+    // ===== Серия занятий (например, на семестр по одному дню недели) =====
+
+    private static final int MAX_SERIES_DAYS = 366;
+
+    public static class SeriesConflict {
+        private final LocalDate date;
+        private final String message;
+
+        public SeriesConflict(LocalDate date, String message) {
+            this.date = date;
+            this.message = message;
+        }
+
+        public LocalDate getDate() {
+            return date;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+
+    public static class SeriesResult {
+        private final List<LocalDate> createdDates = new ArrayList<>();
+        private final List<SeriesConflict> conflicts = new ArrayList<>();
+
+        public List<LocalDate> getCreatedDates() {
+            return createdDates;
+        }
+
+        public int getCreated() {
+            return createdDates.size();
+        }
+
+        public List<SeriesConflict> getConflicts() {
+            return conflicts;
+        }
+    }
+
+    // Создаёт все занятия серии, кроме конфликтующих; конфликты возвращаются списком.
+    // Правила длительности и обеда у всех занятий серии одинаковы и проверяются один раз;
+    // пересечения — одним запросом за весь период; вставка — JDBC-пакетом.
+    @Transactional
+    public SeriesResult createSeries(LessonSeriesForm form) {
+        if (form.getEndDate().isBefore(form.getStartDate())) {
+            throw new IllegalArgumentException("Дата окончания раньше даты начала");
+        }
+        if (form.getStartDate().plusDays(MAX_SERIES_DAYS).isBefore(form.getEndDate())) {
+            throw new IllegalArgumentException("Серия не может быть длиннее года");
+        }
+        checkTimeRules(form.getStartTime(), form.getEndTime());
+
+        // проверка, что дисциплина, группа, преподаватель и аудитория существуют
+        fillRelations(new Lesson(), form.getSubjectId(), form.getGroupId(), form.getTeacherId(), form.getRoomId());
+
+        Set<LocalDate> excluded = parseDates(form.getExcludedDates());
+        List<LocalDate> dates = new ArrayList<>();
+        for (LocalDate d = form.getStartDate(); !d.isAfter(form.getEndDate()); d = d.plusDays(1)) {
+            if (form.getWeekdays().contains(d.getDayOfWeek()) && !excluded.contains(d)) {
+                dates.add(d);
+            }
+        }
+        dateLocks.lockDates(dates);
+
+        Map<LocalDate, List<ScheduleIndex.Slot>> overlapsByDate = new HashMap<>();
+        for (LessonRepository.LessonSlot row : lessonRepository.findOverlappingBetween(
+                form.getStartDate(), form.getEndDate(), form.getStartTime(), form.getEndTime(),
+                form.getTeacherId(), form.getGroupId(), form.getRoomId())) {
+            overlapsByDate.computeIfAbsent(row.getDate(), d -> new ArrayList<>())
+                    .add(new ScheduleIndex.Slot(row.getId(), row.getDate(), row.getStartTime(), row.getEndTime(),
+                            row.getTeacherId(), row.getGroupId(), row.getRoomId()));
+        }
+
+        SeriesResult result = new SeriesResult();
+        List<LocalDate> toInsert = new ArrayList<>();
+        for (LocalDate date : dates) {
+            ScheduleIndex.Slot candidate = new ScheduleIndex.Slot(null, date,
+                    form.getStartTime(), form.getEndTime(),
+                    form.getTeacherId(), form.getGroupId(), form.getRoomId());
+            Optional<ScheduleIndex.Conflict> conflict = ScheduleIndex.firstConflict(
+                    candidate, overlapsByDate.getOrDefault(date, List.of()));
+            if (conflict.isPresent()) {
+                ScheduleIndex.Slot other = conflict.get().getSlot();
+                result.conflicts.add(new SeriesConflict(date, conflictException(conflict.get().getResource(),
+                        " (" + other.getStart() + "–" + other.getEnd() + ")").getMessage()));
+            } else {
+                toInsert.add(date);
+            }
+        }
+
+        if (toInsert.isEmpty()) {
+            return result;
+        }
+
+        List<Object[]> rows = new ArrayList<>(toInsert.size());
+        for (LocalDate date : toInsert) {
+            rows.add(new Object[]{
+                    java.sql.Date.valueOf(date),
+                    java.sql.Time.valueOf(form.getStartTime()),
+                    java.sql.Time.valueOf(form.getEndTime()),
+                    form.getSubjectId(), form.getGroupId(), form.getTeacherId(), form.getRoomId(),
+                    form.getType(), form.getNotes()
+            });
+        }
+        // ON CONFLICT DO NOTHING срабатывает и на ограничения исключения ex_lessons_*_time:
+        // время, занятое параллельной транзакцией после нашего запроса, попадёт в конфликты
+        int[] counts = jdbcTemplate.batchUpdate(
+                "insert into lessons (date, start_time, end_time, subject_id, group_id, teacher_id, room_id, type, notes) " +
+                        "values (?, ?, ?, ?, ?, ?, ?, ?, ?) on conflict do nothing",
+                rows);
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                result.conflicts.add(new SeriesConflict(toInsert.get(i),
+                        "Время только что занято другим занятием"));
+            } else {
+                result.createdDates.add(toInsert.get(i));
+            }
+        }
+        result.conflicts.sort(Comparator.comparing(SeriesConflict::getDate));
+
+        if (!result.createdDates.isEmpty()) {
+            scheduleIndex.daysChanged(result.createdDates);
+            eventPublisher.publishEvent(new EntityChangedEvent(Lesson.class, null));
+            List<ScheduleIndex.Slot> created = new ArrayList<>();
+            for (LocalDate date : result.createdDates) {
+                created.add(new ScheduleIndex.Slot(null, date, form.getStartTime(), form.getEndTime(),
+                        form.getTeacherId(), form.getGroupId(), form.getRoomId()));
+            }
+            eventPublisher.publishEvent(new LessonsChangedEvent(created));
+        }
+        return result;
+    }
+
+    // Сохраняет готовый набор занятий (например, сгенерированное расписание) целиком или
+    // никак: если хоть одно занятие пересекается с уже существующими, не сохраняется ничего.
+    // Проверка — одним запросом за все дни набора под блокировкой этих дней; ограничения
+    // исключения остаются последним рубежом (и их может не быть на старых данных).
+    @Transactional
+    public int createAll(List<Lesson> lessons) {
+        if (lessons.isEmpty()) {
+            return 0;
+        }
+        Set<LocalDate> dates = new HashSet<>();
+        for (Lesson lesson : lessons) {
+            checkTimeRules(lesson.getStartTime(), lesson.getEndTime());
+            dates.add(lesson.getDate());
+        }
+        dateLocks.lockDates(dates);
+
+        Map<LocalDate, List<ScheduleIndex.Slot>> existingByDate = new HashMap<>();
+        for (LessonRepository.LessonSlot row : lessonRepository.findSlotsOn(dates)) {
+            existingByDate.computeIfAbsent(row.getDate(), d -> new ArrayList<>())
+                    .add(new ScheduleIndex.Slot(row.getId(), row.getDate(), row.getStartTime(), row.getEndTime(),
+                            row.getTeacherId(), row.getGroupId(), row.getRoomId()));
+        }
+        for (Lesson lesson : lessons) {
+            List<ScheduleIndex.Slot> overlapping = new ArrayList<>();
+            for (ScheduleIndex.Slot other : existingByDate.getOrDefault(lesson.getDate(), List.of())) {
+                if (isOverlaps(lesson.getStartTime(), lesson.getEndTime(), other.getStart(), other.getEnd())) {
+                    overlapping.add(other);
+                }
+            }
+            if (ScheduleIndex.firstConflict(ScheduleIndex.Slot.of(lesson), overlapping).isPresent()) {
+                throw new IllegalArgumentException(
+                        "Часть времени уже занята другими занятиями — сформируйте расписание заново");
+            }
+        }
+
+        try {
+            lessonRepository.saveAllAndFlush(lessons);
+        } catch (DataIntegrityViolationException ex) {
+            if (isLessonTimeConflict(ex)) {
+                throw new IllegalArgumentException(
+                        "Часть времени уже занята другими занятиями — сформируйте расписание заново");
+            }
+            throw ex;
+        }
+        scheduleIndex.daysChanged(dates);
+        eventPublisher.publishEvent(new EntityChangedEvent(Lesson.class, null));
+        eventPublisher.publishEvent(new LessonsChangedEvent(
+                lessons.stream().map(ScheduleIndex.Slot::of).toList()));
+        return lessons.size();
+    }
+
+    private static Set<LocalDate> parseDates(String text) {
+        Set<LocalDate> dates = new HashSet<>();
+        if (text == null || text.isBlank()) {
+            return dates;
+        }
+        for (String part : text.split("[,;\\s]+")) {
+            if (part.isEmpty()) continue;
+            try {
+                dates.add(LocalDate.parse(part));
+            } catch (DateTimeParseException ex) {
+                throw new IllegalArgumentException("Неверная дата в списке исключений: " + part
+                        + " (ожидается ГГГГ-ММ-ДД)");
+            }
+        }
+        return dates;
     }
 
     @Transactional(readOnly = true)
@@ -97,7 +462,13 @@ public class LessonService {
 
     @Transactional
     public void deleteById(Long id) {
-        lessonRepository.deleteById(id);
+        lessonRepository.findById(id).ifPresent(lesson -> {
+            ScheduleIndex.Slot before = ScheduleIndex.Slot.of(lesson);
+            lessonRepository.delete(lesson);
+            scheduleIndex.lessonDeleted(before);
+            eventPublisher.publishEvent(new EntityChangedEvent(Lesson.class, id));
+            eventPublisher.publishEvent(new LessonsChangedEvent(List.of(before)));
+        });
     }
 
     private void fillRelations(Lesson lesson, Long subjectId, Long groupId,
@@ -123,58 +494,116 @@ public class LessonService {
             throw new IllegalArgumentException("Дата и время занятия обязательны");
         }
 
+        checkTimeRules(lesson.getStartTime(), lesson.getEndTime());
+
+        // 3) Проверка пересечений по учителю, группе, аудитории.
+        // Решает точечный запрос к БД: вызывающий держит блокировку дня (LessonDateLocks),
+        // так что проверка и вставка атомарны; ограничения ex_lessons_*_time (см. saveChecked) —
+        // последний рубеж. Индекс — только подсказка: если он видит конфликт, которого нет
+        // в БД, его день устарел и сбрасывается.
+        ScheduleIndex.Slot candidate = new ScheduleIndex.Slot(currentLessonId,
+                lesson.getDate(), lesson.getStartTime(), lesson.getEndTime(),
+                lesson.getTeacher().getId(), lesson.getGroup().getId(), lesson.getRoom().getId());
+
+        Optional<ScheduleIndex.Conflict> hint = scheduleIndex.findConflict(candidate);
+        Optional<ScheduleIndex.Conflict> conflict = scheduleIndex.findStoredConflict(candidate);
+        if (hint.isPresent() && conflict.isEmpty()) {
+            scheduleIndex.invalidate(lesson.getDate());
+        }
+        if (conflict.isPresent()) {
+            ScheduleIndex.Slot other = conflict.get().getSlot();
+            throw conflictException(conflict.get().getResource(),
+                    " (" + other.getStart() + "–" + other.getEnd() + ")");
+        }
+    }
+
+    private void checkTimeRules(LocalTime start, LocalTime end) {
+        List<String> violations = timeRuleViolations(start, end);
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException(violations.get(0));
+        }
+    }
+
+    // Все нарушения правил времени сразу (для проверки черновиков расписания)
+    public List<String> timeRuleViolations(LocalTime start, LocalTime end) {
+        List<String> violations = new ArrayList<>();
+
         // 1) Длительность строго 90 минут
-        Duration duration = Duration.between(lesson.getStartTime(), lesson.getEndTime());
+        Duration duration = Duration.between(start, end);
         if (!duration.equals(LESSON_DURATION)) {
-            throw new IllegalArgumentException("Занятие должно длиться ровно 1 час 30 минут");
+            violations.add("Занятие должно длиться ровно 1 час 30 минут");
         }
 
         // 2) Не пересекается с обедом (13:00–14:00)
-        if (isOverlaps(lesson.getStartTime(), lesson.getEndTime(), LUNCH_START, LUNCH_END)) {
-            throw new IllegalArgumentException("Занятие не может пересекаться с обедом (13:00–14:00)");
+        if (isOverlaps(start, end, LUNCH_START, LUNCH_END)) {
+            violations.add("Занятие не может пересекаться с обедом (13:00–14:00)");
         }
+        return violations;
+    }
 
-        // 3) Проверка пересечений по учителю, группе, аудитории
-        LocalDate date = lesson.getDate();
-        LocalTime start = lesson.getStartTime();
-        LocalTime end = lesson.getEndTime();
+    // Подходит ли время по правилам длительности и обеда (для генератора расписания)
+    public boolean isAllowedTime(LocalTime start, LocalTime end) {
+        return Duration.between(start, end).equals(LESSON_DURATION)
+                && !isOverlaps(start, end, LUNCH_START, LUNCH_END);
+    }
 
-        List<Lesson> sameDayLessons = lessonRepository.findByDate(date);
+    private IllegalArgumentException conflictException(ScheduleIndex.Resource resource, String details) {
+        return switch (resource) {
+            case TEACHER -> new IllegalArgumentException("Преподаватель уже занят в это время" + details);
+            case GROUP -> new IllegalArgumentException("У группы уже есть занятие в это время" + details);
+            case ROOM -> new IllegalArgumentException("Аудитория уже занята в это время" + details);
+        };
+    }
 
-        for (Lesson other : sameDayLessons) {
-            if (currentLessonId != null && other.getId().equals(currentLessonId)) {
-                continue; // пропускаем само себя при обновлении
+    // Сохранение с немедленной вставкой/обновлением: если параллельная транзакция успела
+    // занять то же время, срабатывает ограничение исключения — переводим его в то же
+    // сообщение, что и обычная проверка (без интервала: транзакция уже прервана)
+    private Lesson saveChecked(Lesson lesson) {
+        try {
+            return lessonRepository.saveAndFlush(lesson);
+        } catch (DataIntegrityViolationException ex) {
+            if (!isLessonTimeConflict(ex)) {
+                throw ex;
             }
+            ScheduleIndex.Resource resource = conflictResource(ex);
+            throw (resource != null)
+                    ? conflictException(resource, "")
+                    : new IllegalArgumentException("Время уже занято другим занятием");
+        }
+    }
 
-            LocalTime otherStart = other.getStartTime();
-            LocalTime otherEnd = other.getEndTime();
-
-            boolean overlap = isOverlaps(start, end, otherStart, otherEnd);
-            if (!overlap) {
-                continue;
+    // Нарушено ограничение исключения (SQLState 23P01) — в этой схеме это только ex_lessons_*_time
+    private static boolean isLessonTimeConflict(Throwable ex) {
+        for (Throwable t = ex; t != null; t = t.getCause()) {
+            if (t instanceof SQLException sql && (EXCLUSION_VIOLATION.equals(sql.getSQLState())
+                    || (sql.getNextException() != null
+                    && EXCLUSION_VIOLATION.equals(sql.getNextException().getSQLState())))) {
+                return true;
             }
+        }
+        return conflictResource(ex) != null;
+    }
 
-            // тот же преподаватель
-            if (other.getTeacher().getId().equals(lesson.getTeacher().getId())) {
-                throw new IllegalArgumentException(
-                        "Преподаватель уже занят в это время (" +
-                                otherStart + "–" + otherEnd + ")");
+    // Какой ресурс занят, по имени ограничения. Для нарушения исключения Hibernate имени
+    // не сообщает (getConstraintName() == null), поэтому оно ищется и в тексте ошибки
+    // сервера — там оно всегда есть; у пакетной вставки текст лежит в getNextException().
+    private static ScheduleIndex.Resource conflictResource(Throwable ex) {
+        for (Throwable t = ex; t != null; t = t.getCause()) {
+            StringBuilder text = new StringBuilder(String.valueOf(t.getMessage()));
+            if (t instanceof ConstraintViolationException cve && cve.getConstraintName() != null) {
+                text.append(' ').append(cve.getConstraintName());
             }
-
-            // та же группа
-            if (other.getGroup().getId().equals(lesson.getGroup().getId())) {
-                throw new IllegalArgumentException(
-                        "У группы уже есть занятие в это время (" +
-                                otherStart + "–" + otherEnd + ")");
+            if (t instanceof SQLException sql && sql.getNextException() != null) {
+                text.append(' ').append(sql.getNextException().getMessage());
             }
-
-            // тот же кабинет
-            if (other.getRoom().getId().equals(lesson.getRoom().getId())) {
-                throw new IllegalArgumentException(
-                        "Аудитория уже занята в это время (" +
-                                otherStart + "–" + otherEnd + ")");
+            String lower = text.toString().toLowerCase();
+            for (Map.Entry<String, ScheduleIndex.Resource> e : TIME_CONSTRAINTS.entrySet()) {
+                if (lower.contains(e.getKey())) {
+                    return e.getValue();
+                }
             }
         }
+        return null;
     }
 
     private boolean isOverlaps(LocalTime start1, LocalTime end1,
@@ -0,0 +1,42 @@
+package ru.coursework.artschool.service;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+// Публикуется LessonService вместе с EntityChangedEvent: какие дни, группы,
+// преподаватели и аудитории затронула запись занятий.
+// Для изменённого занятия сюда попадает и старое, и новое положение.
+public class LessonsChangedEvent {
+
+    private final Set<LocalDate> dates = new HashSet<>();
+    private final Set<Long> groupIds = new HashSet<>();
+    private final Set<Long> teacherIds = new HashSet<>();
+    private final Set<Long> roomIds = new HashSet<>();
+
+    public LessonsChangedEvent(Collection<ScheduleIndex.Slot> slots) {
+        for (ScheduleIndex.Slot slot : slots) {
+            dates.add(slot.getDate());
+            groupIds.add(slot.getGroupId());
+            teacherIds.add(slot.getTeacherId());
+            roomIds.add(slot.getRoomId());
+        }
+    }
+
+    public Set<LocalDate> getDates() {
+        return dates;
+    }
+
+    public Set<Long> getGroupIds() {
+        return groupIds;
+    }
+
+    public Set<Long> getTeacherIds() {
+        return teacherIds;
+    }
+
+    public Set<Long> getRoomIds() {
+        return roomIds;
+    }
+}
@@ -0,0 +1,337 @@
+package ru.coursework.artschool.service;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.coursework.artschool.model.Group;
+import ru.coursework.artschool.model.Student;
+import ru.coursework.artschool.model.Subject;
+import ru.coursework.artschool.model.Teacher;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Поиск по названиям для подсказок при вводе: ученики (ФИО), преподаватели (ФИО и
+// специализация), группы и дисциплины (код и название). Всё в памяти, без запросов к БД.
+//
+// Для каждого вида записей — триграммный индекс: триграмма → отсортированный int[]
+// номеров документов. Слово запроса от трёх символов сужается пересечением списков его
+// триграмм, кандидаты проверяются подстрокой; слова короче проверяются перебором.
+// Изменённая запись получает новый номер, старый помечается удалённым; когда удалённых
+// становится больше живых, индекс вида перестраивается (память остаётся ограниченной).
+//
+// Строится при запуске (DataInitializer), обновляется после коммита по EntityChangedEvent.
+@Component
+public class NameSearchIndex {
+
+    public enum Kind { STUDENT, TEACHER, GROUP, SUBJECT }
+
+    public static final int MAX_LIMIT = 50;
+
+    public static class Hit {
+        private final Kind kind;
+        private final Long id;
+        private final String label;
+        private final int score;
+
+        Hit(Kind kind, Long id, String label, int score) {
+            this.kind = kind;
+            this.id = id;
+            this.label = label;
+            this.score = score;
+        }
+
+        public Kind getKind() { return kind; }
+        public Long getId() { return id; }
+        public String getLabel() { return label; }
+        public int getScore() { return score; }
+    }
+
+    private static final Map<Kind, String> SELECT_ALL = Map.of(
+            Kind.STUDENT, "select id, full_name from students",
+            Kind.TEACHER, "select id, concat_ws(' — ', full_name, nullif(specialization, '')) from teachers",
+            Kind.GROUP, "select id, concat_ws(' — ', code, nullif(name, '')) from groups",
+            Kind.SUBJECT, "select id, concat_ws(' — ', code, nullif(name, '')) from subjects");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<Kind, KindIndex> indexes = new EnumMap<>(Kind.class);
+
+    public NameSearchIndex(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        for (Kind kind : Kind.values()) {
+            indexes.put(kind, new KindIndex());
+        }
+    }
+
+    public void rebuildAll() {
+        for (Kind kind : Kind.values()) {
+            rebuild(kind);
+        }
+    }
+
+    public void rebuild(Kind kind) {
+        Map<Long, String> labels = new LinkedHashMap<>();
+        jdbcTemplate.query(SELECT_ALL.get(kind), rs -> {
+            labels.put(rs.getLong(1), rs.getString(2));
+        });
+        indexes.get(kind).replaceAll(labels);
+    }
+
+    // id записей, подходящих под все слова запроса, лучшие — первыми
+    public List<Hit> search(Kind kind, String query, int limit) {
+        String[] tokens = normalize(query == null ? "" : query).trim().split(" ");
+        if (tokens[0].isEmpty()) {
+            return List.of();
+        }
+        return indexes.get(kind).search(kind, tokens, Math.max(1, Math.min(limit, MAX_LIMIT)));
+    }
+
+    @EventListener
+    public void onEntityChanged(EntityChangedEvent event) {
+        Kind kind = kindOf(event.getEntityType());
+        if (kind == null) {
+            return;
+        }
+        Long id = event.getEntityId();
+        Runnable refresh = () -> {
+            if (id == null) {
+                rebuild(kind);
+            } else {
+                refresh(kind, id);
+            }
+        };
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            refresh.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                refresh.run();
+            }
+        });
+    }
+
+    // перечитывает одну запись: есть — заменяется, нет — удаляется
+    private void refresh(Kind kind, Long id) {
+        List<String> label = jdbcTemplate.query(SELECT_ALL.get(kind) + " where id = ?",
+                (rs, rowNum) -> rs.getString(2), id);
+        indexes.get(kind).put(id, label.isEmpty() ? null : label.get(0));
+    }
+
+    private static Kind kindOf(Class<?> type) {
+        if (type == Student.class) return Kind.STUDENT;
+        if (type == Teacher.class) return Kind.TEACHER;
+        if (type == Group.class) return Kind.GROUP;
+        if (type == Subject.class) return Kind.SUBJECT;
+        return null;
+    }
+
+    // нижний регистр, ё → е, всё кроме букв и цифр — один пробел
+    static String normalize(String text) {
+        StringBuilder sb = new StringBuilder(text.length() + 2).append(' ');
+        for (int i = 0; i < text.length(); i++) {
+            char c = Character.toLowerCase(text.charAt(i));
+            if (c == 'ё') {
+                c = 'е';
+            }
+            if (Character.isLetterOrDigit(c)) {
+                sb.append(c);
+            } else if (sb.charAt(sb.length() - 1) != ' ') {
+                sb.append(' ');
+            }
+        }
+        if (sb.charAt(sb.length() - 1) != ' ') {
+            sb.append(' ');
+        }
+        return sb.toString();
+    }
+
+    private static long trigram(String s, int i) {
+        return ((long) s.charAt(i) << 32) | ((long) s.charAt(i + 1) << 16) | s.charAt(i + 2);
+    }
+
+    // ===== Индекс одного вида записей =====
+
+    private static final class KindIndex {
+
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+        // всё ниже — под lock
+        private long[] ids = new long[16];
+        private String[] labels = new String[16];
+        private String[] texts = new String[16]; // нормализованные, с пробелами по краям
+        private final BitSet alive = new BitSet();
+        private int size; // выданные номера документов
+        private int deleted;
+        private final Map<Long, Integer> docById = new HashMap<>();
+        private final Map<Long, IntList> postings = new HashMap<>();
+
+        void replaceAll(Map<Long, String> entries) {
+            lock.writeLock().lock();
+            try {
+                clear(entries.size());
+                entries.forEach(this::add);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        // label == null — запись удалена
+        void put(Long id, String label) {
+            lock.writeLock().lock();
+            try {
+                Integer old = docById.remove(id);
+                if (old != null) {
+                    alive.clear(old);
+                    deleted++;
+                }
+                if (label != null) {
+                    add(id, label);
+                }
+                if (deleted > 1024 && deleted > docById.size()) {
+                    compact();
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        List<Hit> search(Kind kind, String[] tokens, int limit) {
+            lock.readLock().lock();
+            try {
+                // кандидаты — по самому длинному слову (у него самые короткие списки)
+                String longest = tokens[0];
+                for (String t : tokens) {
+                    if (t.length() > longest.length()) {
+                        longest = t;
+                    }
+                }
+
+                List<Hit> hits = new ArrayList<>();
+                if (longest.length() >= 3) {
+                    int[][] lists = new int[longest.length() - 2][];
+                    int[] lengths = new int[lists.length];
+                    for (int i = 0; i < lists.length; i++) {
+                        IntList list = postings.get(trigram(longest, i));
+                        if (list == null) {
+                            return List.of();
+                        }
+                        lists[i] = list.values;
+                        lengths[i] = list.size;
+                    }
+                    int shortest = 0;
+                    for (int i = 1; i < lists.length; i++) {
+                        if (lengths[i] < lengths[shortest]) {
+                            shortest = i;
+                        }
+                    }
+                    outer:
+                    for (int k = 0; k < lengths[shortest]; k++) {
+                        int doc = lists[shortest][k];
+                        for (int i = 0; i < lists.length; i++) {
+                            if (i != shortest && Arrays.binarySearch(lists[i], 0, lengths[i], doc) < 0) {
+                                continue outer;
+                            }
+                        }
+                        collect(kind, doc, tokens, hits);
+                    }
+                } else {
+                    for (int doc = alive.nextSetBit(0); doc >= 0; doc = alive.nextSetBit(doc + 1)) {
+                        collect(kind, doc, tokens, hits);
+                    }
+                }
+
+                hits.sort(Comparator.comparingInt(Hit::getScore).reversed()
+                        .thenComparingInt(h -> h.getLabel().length())
+                        .thenComparing(Hit::getLabel));
+                return hits.size() > limit ? new ArrayList<>(hits.subList(0, limit)) : hits;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        // проверка всех слов и оценка: целое слово — 3, начало слова — 2, середина — 1
+        private void collect(Kind kind, int doc, String[] tokens, List<Hit> hits) {
+            if (!alive.get(doc)) {
+                return;
+            }
+            String text = texts[doc];
+            int score = 0;
+            for (String t : tokens) {
+                int pos = text.indexOf(t);
+                if (pos < 0) {
+                    return;
+                }
+                int wordStart = text.indexOf(" " + t);
+                if (wordStart >= 0) {
+                    score += text.startsWith(" ", wordStart + 1 + t.length()) ? 3 : 2;
+                } else {
+                    score += 1;
+                }
+            }
+            hits.add(new Hit(kind, ids[doc], labels[doc], score));
+        }
+
+        private void add(Long id, String label) {
+            if (size == ids.length) {
+                int capacity = size * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                labels = Arrays.copyOf(labels, capacity);
+                texts = Arrays.copyOf(texts, capacity);
+            }
+            int doc = size++;
+            String text = normalize(label);
+            ids[doc] = id;
+            labels[doc] = label;
+            texts[doc] = text;
+            alive.set(doc);
+            docById.put(id, doc);
+
+            // номера документов растут, поэтому списки остаются отсортированными
+            Set<Long> seen = new HashSet<>();
+            for (int i = 0; i + 3 <= text.length(); i++) {
+                long tri = trigram(text, i);
+                if (seen.add(tri)) {
+                    postings.computeIfAbsent(tri, k -> new IntList()).add(doc);
+                }
+            }
+        }
+
+        private void compact() {
+            Map<Long, String> live = new LinkedHashMap<>();
+            for (int doc = alive.nextSetBit(0); doc >= 0; doc = alive.nextSetBit(doc + 1)) {
+                live.put(ids[doc], labels[doc]);
+            }
+            clear(live.size());
+            live.forEach(this::add);
+        }
+
+        private void clear(int expected) {
+            int capacity = Math.max(16, expected);
+            ids = new long[capacity];
+            labels = new String[capacity];
+            texts = new String[capacity];
+            alive.clear();
+            size = 0;
+            deleted = 0;
+            docById.clear();
+            postings.clear();
+        }
+    }
+
+    // растущий массив int без упаковки в Integer
+    private static final class IntList {
+        int[] values = new int[4];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+}
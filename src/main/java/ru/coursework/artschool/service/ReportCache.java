@@ -0,0 +1,189 @@
+package ru.coursework.artschool.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.coursework.artschool.model.*;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+// Кэш результатов ReportService: ограниченный размер (LRU), TTL, счётчики попаданий.
+//
+// Сбрасывается записями оценок, учеников, групп и прочих данных, видимых в отчётах.
+// Сброс делается после коммита; пока пишущая транзакция коммитится, кэш обходится,
+// а значение, посчитанное до сброса, в кэш уже не попадёт (проверка поколения).
+@Component
+public class ReportCache {
+
+    public static final String SNAPSHOT_KEY = "snapshot";
+
+    private static final Class<?>[] TRACKED_TYPES = {
+            Grade.class, Student.class, Group.class,
+            Teacher.class, Subject.class, Lesson.class
+    };
+
+    private static final class CachedValue {
+        private final Object value;
+        private final long expiresAt;
+
+        CachedValue(Object value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    public static class Stats {
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final long invalidations;
+        private final int size;
+
+        Stats(long hits, long misses, long evictions, long invalidations, int size) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.invalidations = invalidations;
+            this.size = size;
+        }
+
+        public long getHits() { return hits; }
+        public long getMisses() { return misses; }
+        public long getEvictions() { return evictions; }
+        public long getInvalidations() { return invalidations; }
+        public int getSize() { return size; }
+
+        public Double getHitRate() {
+            long total = hits + misses;
+            return total == 0 ? null : (double) hits / total;
+        }
+    }
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LinkedHashMap<String, CachedValue> entries;
+
+    // всё состояние ниже защищено монитором this
+    private long generation;
+    private int writesInFlight;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    public ReportCache(@Value("${artschool.report-cache.max-size:32}") int maxSize,
+                       @Value("${artschool.report-cache.ttl:PT5M}") Duration ttl) {
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedValue> eldest) {
+                if (size() > ReportCache.this.maxSize) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(String key, Supplier<T> loader) {
+        long loadGeneration;
+
+        synchronized (this) {
+            if (writesInFlight == 0) {
+                CachedValue entry = entries.get(key);
+                if (entry != null) {
+                    if (entry.expiresAt - System.nanoTime() > 0) {
+                        hits++;
+                        return (T) entry.value;
+                    }
+                    entries.remove(key);
+                    evictions++;
+                }
+            }
+            misses++;
+            loadGeneration = generation;
+        }
+
+        // считаем вне блокировки — запросы к БД не должны выстраиваться в очередь
+        T value = loader.get();
+
+        synchronized (this) {
+            if (loadGeneration == generation && writesInFlight == 0) {
+                entries.put(key, new CachedValue(value, System.nanoTime() + ttlNanos));
+            }
+        }
+        return value;
+    }
+
+    public synchronized void invalidateAll() {
+        generation++;
+        invalidations++;
+        entries.clear();
+    }
+
+    public synchronized Stats getStats() {
+        purgeExpired();
+        return new Stats(hits, misses, evictions, invalidations, entries.size());
+    }
+
+    private void purgeExpired() {
+        long now = System.nanoTime();
+        Iterator<CachedValue> it = entries.values().iterator();
+        while (it.hasNext()) {
+            if (it.next().expiresAt - now <= 0) {
+                it.remove();
+                evictions++;
+            }
+        }
+    }
+
+    private synchronized void beginWrite() {
+        writesInFlight++;
+    }
+
+    private synchronized void endWrite(boolean committed) {
+        writesInFlight--;
+        if (committed) {
+            invalidateAll();
+        }
+    }
+
+    @EventListener
+    public void onEntityChanged(EntityChangedEvent event) {
+        if (!event.isAbout(TRACKED_TYPES)) {
+            return;
+        }
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            // запись вне транзакции уже видна всем
+            invalidateAll();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private boolean committing;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                committing = true;
+                beginWrite();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (committing) {
+                    endWrite(status == STATUS_COMMITTED);
+                }
+            }
+        });
+    }
+}
@@ -2,14 +2,12 @@ package ru.coursework.artschool.service;
 
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import ru.coursework.artschool.model.Grade;
+import ru.coursework.artschool.model.GradeAggregate;
 import ru.coursework.artschool.model.Group;
 import ru.coursework.artschool.model.Subject;
-import ru.coursework.artschool.model.Student;
 import ru.coursework.artschool.repository.*;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Service
 public class ReportService {
@@ -18,21 +16,21 @@ public class ReportService {
     private final GroupRepository groupRepository;
     private final SubjectRepository subjectRepository;
     private final LessonRepository lessonRepository;
-    private final GradeRepository gradeRepository;
     private final TeacherRepository teacherRepository;
+    private final GradeAggregateService gradeAggregateService;
 
     public ReportService(StudentRepository studentRepository,
                          GroupRepository groupRepository,
                          SubjectRepository subjectRepository,
                          LessonRepository lessonRepository,
-                         GradeRepository gradeRepository,
-                         TeacherRepository teacherRepository) {
+                         TeacherRepository teacherRepository,
+                         GradeAggregateService gradeAggregateService) {
         this.studentRepository = studentRepository;
         this.groupRepository = groupRepository;
         this.subjectRepository = subjectRepository;
         this.lessonRepository = lessonRepository;
-        this.gradeRepository = gradeRepository;
         this.teacherRepository = teacherRepository;
+        this.gradeAggregateService = gradeAggregateService;
     }
 
     // ===== DTO для отчётов =====
@@ -90,112 +88,130 @@ public class ReportService {
         public void setAverageGrade(Double averageGrade) { this.averageGrade = averageGrade; }
     }
 
-    // ===== Методы отчётов =====
-
-    @Transactional(readOnly = true)
-    public OverviewStats getOverviewStats() {
-        OverviewStats stats = new OverviewStats();
-
-        stats.setTotalStudents(studentRepository.count());
-        stats.setTotalTeachers(teacherRepository.count());
-        stats.setTotalGroups(groupRepository.count());
-        stats.setTotalSubjects(subjectRepository.count());
-        stats.setTotalLessons(lessonRepository.count());
-
-        List<Grade> grades = gradeRepository.findAll();
-        if (!grades.isEmpty()) {
-            double avg = grades.stream()
-                    .mapToInt(Grade::getValue)
-                    .average()
-                    .orElse(0.0);
-            stats.setOverallAverageGrade(avg);
-        } else {
-            stats.setOverallAverageGrade(null);
+    // Неизменяемый срез всех данных страницы отчётов
+    public static final class ReportSnapshot {
+        private final OverviewStats overview;
+        private final List<GroupStudentStats> groupStats;
+        private final List<SubjectAverageStats> subjectStats;
+
+        // данные для графиков
+        private final List<String> groupLabels;
+        private final List<Long> groupStudentCounts;
+        private final List<Double> groupAvgGrades;
+        private final List<String> subjectLabels;
+        private final List<Double> subjectAvgGrades;
+
+        ReportSnapshot(OverviewStats overview,
+                       List<GroupStudentStats> groupStats,
+                       List<SubjectAverageStats> subjectStats) {
+            this.overview = overview;
+            this.groupStats = List.copyOf(groupStats);
+            this.subjectStats = List.copyOf(subjectStats);
+
+            this.groupLabels = this.groupStats.stream()
+                    .map(s -> s.getGroup().getCode())
+                    .toList();
+            this.groupStudentCounts = this.groupStats.stream()
+                    .map(GroupStudentStats::getStudentCount)
+                    .toList();
+            this.groupAvgGrades = this.groupStats.stream()
+                    .map(s -> s.getAverageGrade() == null ? 0.0 : s.getAverageGrade())
+                    .toList();
+            this.subjectLabels = this.subjectStats.stream()
+                    .map(s -> s.getSubject().getCode())
+                    .toList();
+            this.subjectAvgGrades = this.subjectStats.stream()
+                    .map(s -> s.getAverageGrade() == null ? 0.0 : s.getAverageGrade())
+                    .toList();
         }
 
-        return stats;
+        public OverviewStats getOverview() { return overview; }
+        public List<GroupStudentStats> getGroupStats() { return groupStats; }
+        public List<SubjectAverageStats> getSubjectStats() { return subjectStats; }
+
+        public List<String> getGroupLabels() { return groupLabels; }
+        public List<Long> getGroupStudentCounts() { return groupStudentCounts; }
+        public List<Double> getGroupAvgGrades() { return groupAvgGrades; }
+        public List<String> getSubjectLabels() { return subjectLabels; }
+        public List<Double> getSubjectAvgGrades() { return subjectAvgGrades; }
     }
 
-    @Transactional(readOnly = true)
-    public List<GroupStudentStats> getGroupStudentStats() {
-        List<Group> groups = groupRepository.findAll();
-        List<Student> students = studentRepository.findAll();
-        List<Grade> grades = gradeRepository.findAll();
-
-        // распределяем студентов по группам в памяти
-        Map<Long, Long> studentCountByGroup = students.stream()
-                .filter(s -> s.getGroup() != null)
-                .collect(Collectors.groupingBy(
-                        s -> s.getGroup().getId(),
-                        Collectors.counting()
-                ));
-
-        // собираем оценки по группе
-        Map<Long, IntSummaryStatistics> gradeStatsByGroup = new HashMap<>();
-        for (Grade g : grades) {
-            if (g.getLesson() == null || g.getLesson().getGroup() == null) continue;
-            Long groupId = g.getLesson().getGroup().getId();
-            gradeStatsByGroup
-                    .computeIfAbsent(groupId, id -> new IntSummaryStatistics())
-                    .accept(g.getValue());
+    // сумма и количество оценок для свёртки агрегатов
+    private static final class GradeTotals {
+        private long sum;
+        private long count;
+
+        void add(long sum, long count) {
+            this.sum += sum;
+            this.count += count;
         }
 
-        List<GroupStudentStats> result = new ArrayList<>();
+        Double average() {
+            return count == 0 ? null : (double) sum / count;
+        }
+    }
 
-        for (Group group : groups) {
-            GroupStudentStats s = new GroupStudentStats();
-            s.setGroup(group);
-            s.setStudentCount(studentCountByGroup.getOrDefault(group.getId(), 0L));
+    // ===== Методы отчётов =====
 
-            IntSummaryStatistics stat = gradeStatsByGroup.get(group.getId());
-            if (stat != null && stat.getCount() > 0) {
-                s.setAverageGrade(stat.getAverage());
-            } else {
-                s.setAverageGrade(null);
+    // Все данные страницы отчётов из накопительных агрегатов (GradeAggregateService):
+    // читаются готовые строки по группам и предметам, оценки не просматриваются.
+    @Transactional(readOnly = true)
+    public ReportSnapshot getReportSnapshot() {
+        OverviewStats overview = new OverviewStats();
+        overview.setTotalStudents(studentRepository.count());
+        overview.setTotalTeachers(teacherRepository.count());
+        overview.setTotalGroups(groupRepository.count());
+        overview.setTotalSubjects(subjectRepository.count());
+        overview.setTotalLessons(lessonRepository.count());
+
+        GradeTotals total = new GradeTotals();
+        Map<Long, GradeAggregate> totalsByGroup = new HashMap<>();
+        Map<Long, GradeAggregate> totalsBySubject = new HashMap<>();
+
+        for (GradeAggregate a : gradeAggregateService.getGroupAndSubjectTotals()) {
+            if (a.getGradeCount() == 0) continue;
+
+            switch (a.getScope()) {
+                case GROUP -> {
+                    // каждая оценка попадает ровно в одну группу — общий итог складываем отсюда
+                    total.add(a.getGradeSum(), a.getGradeCount());
+                    totalsByGroup.put(a.getGroupId(), a);
+                }
+                case SUBJECT -> totalsBySubject.put(a.getSubjectId(), a);
+                default -> {
+                }
             }
-
-            result.add(s);
         }
+        overview.setOverallAverageGrade(total.average());
 
-        // сортируем по коду группы
-        result.sort(Comparator.comparing(g -> g.getGroup().getCode(), String.CASE_INSENSITIVE_ORDER));
-        return result;
-    }
-
-    @Transactional(readOnly = true)
-    public List<SubjectAverageStats> getSubjectAverageStats() {
-        List<Grade> grades = gradeRepository.findAll();
-
-        // subjectId -> stats
-        Map<Long, IntSummaryStatistics> statsBySubject = new HashMap<>();
-        Map<Long, Subject> subjectById = new HashMap<>();
-
-        for (Grade g : grades) {
-            if (g.getLesson() == null || g.getLesson().getSubject() == null) continue;
-            Subject subject = g.getLesson().getSubject();
-            Long subjectId = subject.getId();
-
-            subjectById.putIfAbsent(subjectId, subject);
-            statsBySubject
-                    .computeIfAbsent(subjectId, id -> new IntSummaryStatistics())
-                    .accept(g.getValue());
+        // группы: все, даже без оценок
+        Map<Long, Long> studentCountByGroup = new HashMap<>();
+        for (StudentRepository.GroupStudentCount c : studentRepository.countByGroup()) {
+            studentCountByGroup.put(c.getGroupId(), c.getStudentCount());
         }
 
-        List<SubjectAverageStats> result = new ArrayList<>();
+        List<GroupStudentStats> groupStats = new ArrayList<>();
+        for (Group group : groupRepository.findAll()) {
+            GradeAggregate totals = totalsByGroup.get(group.getId());
 
-        for (Map.Entry<Long, IntSummaryStatistics> e : statsBySubject.entrySet()) {
-            Subject subj = subjectById.get(e.getKey());
-            if (subj == null) continue;
-            IntSummaryStatistics st = e.getValue();
+            GroupStudentStats s = new GroupStudentStats();
+            s.setGroup(group);
+            s.setStudentCount(studentCountByGroup.getOrDefault(group.getId(), 0L));
+            s.setAverageGrade(totals != null ? totals.getAverage() : null);
+            groupStats.add(s);
+        }
+        groupStats.sort(Comparator.comparing(g -> g.getGroup().getCode(), String.CASE_INSENSITIVE_ORDER));
 
+        // предметы: только те, по которым есть оценки
+        List<SubjectAverageStats> subjectStats = new ArrayList<>();
+        for (Subject subj : subjectRepository.findAllById(totalsBySubject.keySet())) {
             SubjectAverageStats sa = new SubjectAverageStats();
             sa.setSubject(subj);
-            sa.setAverageGrade(st.getCount() > 0 ? st.getAverage() : null);
-            result.add(sa);
+            sa.setAverageGrade(totalsBySubject.get(subj.getId()).getAverage());
+            subjectStats.add(sa);
         }
+        subjectStats.sort(Comparator.comparing(s -> s.getSubject().getCode(), String.CASE_INSENSITIVE_ORDER));
 
-        // сортируем по коду предмета
-        result.sort(Comparator.comparing(s -> s.getSubject().getCode(), String.CASE_INSENSITIVE_ORDER));
-        return result;
+        return new ReportSnapshot(overview, groupStats, subjectStats);
     }
 }
@@ -1,5 +1,6 @@
 package ru.coursework.artschool.service;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.coursework.artschool.model.Room;
@@ -12,9 +13,12 @@ import java.util.Optional;
 public class RoomService {
 
     private final RoomRepository roomRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public RoomService(RoomRepository roomRepository) {
+    public RoomService(RoomRepository roomRepository,
+                       ApplicationEventPublisher eventPublisher) {
         this.roomRepository = roomRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     @Transactional(readOnly = true)
@@ -32,7 +36,9 @@ public class RoomService {
         if (roomRepository.existsByCodeIgnoreCase(room.getCode())) {
             throw new IllegalArgumentException("Аудитория с таким кодом уже существует");
         }
-        return roomRepository.save(room);
+        Room saved = roomRepository.save(room);
+        eventPublisher.publishEvent(new EntityChangedEvent(Room.class, saved.getId()));
+        return saved;
     }
 
     @Transactional
@@ -49,12 +55,15 @@ public class RoomService {
         existing.setCapacity(form.getCapacity());
         existing.setDescription(form.getDescription());
 
-        return roomRepository.save(existing);
+        Room saved = roomRepository.save(existing);
+        eventPublisher.publishEvent(new EntityChangedEvent(Room.class, id));
+        return saved;
     }
 
     @Transactional
     public void deleteById(Long id) {
         roomRepository.deleteById(id);
+        eventPublisher.publishEvent(new EntityChangedEvent(Room.class, id));
     }
 
 }
@@ -0,0 +1,315 @@
+package ru.coursework.artschool.service;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.coursework.artschool.model.Lesson;
+import ru.coursework.artschool.repository.LessonRepository;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Индекс расписания для проверки пересечений занятий.
+//
+// Для каждого дня хранит занятия преподавателя, группы и аудитории в TreeMap по времени
+// начала. Занятия одного ресурса в один день не пересекаются, поэтому и концы идут
+// по возрастанию: достаточно посмотреть последнее занятие, начавшееся до конца
+// проверяемого интервала (O(log n), без загрузки сущностей).
+//
+// Дни подгружаются из БД при первом обращении; изменения LessonService применяются
+// после коммита. День, загруженный параллельно с коммитом, в индекс не сохраняется
+// (проверка счётчика изменений) и будет перечитан при следующем обращении.
+// В памяти держится не больше MAX_DAYS дней: при переполнении вытесняется день,
+// дальше всех отстоящий от загружаемого.
+//
+// Индекс может отставать от БД (изменения в обход LessonService, правки прямо
+// в базе), поэтому его ответ — только подсказка: LessonService
+// подтверждает найденный конфликт запросом findStoredConflict, а устаревший день
+// сбрасывает через invalidate.
+@Component
+public class ScheduleIndex {
+
+    public enum Resource {
+        TEACHER,
+        GROUP,
+        ROOM
+    }
+
+    public static final class Slot {
+        private final Long lessonId;
+        private final LocalDate date;
+        private final LocalTime start;
+        private final LocalTime end;
+        private final Long teacherId;
+        private final Long groupId;
+        private final Long roomId;
+
+        public Slot(Long lessonId, LocalDate date, LocalTime start, LocalTime end,
+                    Long teacherId, Long groupId, Long roomId) {
+            this.lessonId = lessonId;
+            this.date = date;
+            this.start = start;
+            this.end = end;
+            this.teacherId = teacherId;
+            this.groupId = groupId;
+            this.roomId = roomId;
+        }
+
+        public static Slot of(Lesson lesson) {
+            return new Slot(lesson.getId(), lesson.getDate(), lesson.getStartTime(), lesson.getEndTime(),
+                    lesson.getTeacher().getId(), lesson.getGroup().getId(), lesson.getRoom().getId());
+        }
+
+        static Slot of(LessonRepository.LessonSlot row) {
+            return new Slot(row.getId(), row.getDate(), row.getStartTime(), row.getEndTime(),
+                    row.getTeacherId(), row.getGroupId(), row.getRoomId());
+        }
+
+        public Long getLessonId() { return lessonId; }
+        public LocalDate getDate() { return date; }
+        public LocalTime getStart() { return start; }
+        public LocalTime getEnd() { return end; }
+        public Long getTeacherId() { return teacherId; }
+        public Long getGroupId() { return groupId; }
+        public Long getRoomId() { return roomId; }
+
+        Long resourceId(Resource resource) {
+            return switch (resource) {
+                case TEACHER -> teacherId;
+                case GROUP -> groupId;
+                case ROOM -> roomId;
+            };
+        }
+    }
+
+    public static final class Conflict {
+        private final Resource resource;
+        private final Slot slot;
+
+        Conflict(Resource resource, Slot slot) {
+            this.resource = resource;
+            this.slot = slot;
+        }
+
+        public Resource getResource() { return resource; }
+        public Slot getSlot() { return slot; }
+    }
+
+    // занятия одного дня; все методы под монитором дня
+    private static final class DaySchedule {
+        private final Map<Long, Slot> byId = new HashMap<>();
+        private final Map<Resource, Map<Long, TreeMap<LocalTime, Slot>>> byResource = new HashMap<>();
+
+        DaySchedule() {
+            for (Resource r : Resource.values()) {
+                byResource.put(r, new HashMap<>());
+            }
+        }
+
+        synchronized void put(Slot slot) {
+            remove(slot.getLessonId());
+            byId.put(slot.getLessonId(), slot);
+            for (Resource r : Resource.values()) {
+                byResource.get(r)
+                        .computeIfAbsent(slot.resourceId(r), id -> new TreeMap<>())
+                        .put(slot.getStart(), slot);
+            }
+        }
+
+        synchronized void remove(Long lessonId) {
+            Slot old = byId.remove(lessonId);
+            if (old == null) {
+                return;
+            }
+            for (Resource r : Resource.values()) {
+                TreeMap<LocalTime, Slot> line = byResource.get(r).get(old.resourceId(r));
+                if (line != null && line.get(old.getStart()) == old) {
+                    line.remove(old.getStart());
+                }
+            }
+        }
+
+        synchronized Slot findOverlap(Resource resource, Long resourceId,
+                                      LocalTime start, LocalTime end, Long excludeLessonId) {
+            TreeMap<LocalTime, Slot> line = byResource.get(resource).get(resourceId);
+            if (line == null) {
+                return null;
+            }
+            // идём назад от последнего занятия, начавшегося до end, пока концы ещё после start;
+            // при непересекающихся занятиях это не больше двух шагов (второй — если первым попалось само занятие)
+            Map.Entry<LocalTime, Slot> e = line.lowerEntry(end);
+            while (e != null && e.getValue().getEnd().isAfter(start)) {
+                if (!e.getValue().getLessonId().equals(excludeLessonId)) {
+                    return e.getValue();
+                }
+                e = line.lowerEntry(e.getKey());
+            }
+            return null;
+        }
+    }
+
+    static final int MAX_DAYS = 120;
+
+    private final LessonRepository lessonRepository;
+    private final ConcurrentHashMap<LocalDate, DaySchedule> days = new ConcurrentHashMap<>();
+    // растёт при каждом применённом изменении; защищает от сохранения устаревшего дня
+    private final AtomicLong modCount = new AtomicLong();
+
+    public ScheduleIndex(LessonRepository lessonRepository) {
+        this.lessonRepository = lessonRepository;
+    }
+
+    // Первое занятие, с которым пересекается candidate: сначала по преподавателю,
+    // затем по группе, затем по аудитории. Само занятие (candidate.lessonId) не учитывается.
+    public Optional<Conflict> findConflict(Slot candidate) {
+        DaySchedule day = day(candidate.getDate());
+        for (Resource r : Resource.values()) {
+            Slot other = day.findOverlap(r, candidate.resourceId(r),
+                    candidate.getStart(), candidate.getEnd(), candidate.getLessonId());
+            if (other != null) {
+                return Optional.of(new Conflict(r, other));
+            }
+        }
+        return Optional.empty();
+    }
+
+    // То же по данным БД: один запрос только по пересекающимся занятиям дня.
+    // Видит занятия, закоммиченные другими транзакциями, но ещё не попавшие в индекс.
+    public Optional<Conflict> findStoredConflict(Slot candidate) {
+        List<LessonRepository.LessonSlot> rows = lessonRepository.findOverlapping(
+                candidate.getDate(), candidate.getStart(), candidate.getEnd(),
+                candidate.getTeacherId(), candidate.getGroupId(), candidate.getRoomId(),
+                candidate.getLessonId() != null ? candidate.getLessonId() : -1L);
+        return firstConflict(candidate, rows.stream().map(Slot::of).toList());
+    }
+
+    // Загружает дни периода одним запросом (в том числе пустые)
+    public void warm(LocalDate start, LocalDate end) {
+        long seen = modCount.get();
+        Map<LocalDate, DaySchedule> loaded = new HashMap<>();
+        for (LocalDate d = start; !d.isAfter(end); d = d.plusDays(1)) {
+            loaded.put(d, new DaySchedule());
+        }
+        for (LessonRepository.LessonSlot row : lessonRepository.findSlotsBetween(start, end)) {
+            loaded.get(row.getDate()).put(Slot.of(row));
+        }
+        if (modCount.get() == seen) {
+            loaded.forEach(this::cache);
+        }
+    }
+
+    // Занятие создано или изменено (before — прежнее положение, null для нового)
+    public void lessonSaved(Slot before, Slot after) {
+        afterCommit(() -> {
+            if (before != null) {
+                removeFromDay(before.getDate(), before.getLessonId());
+            }
+            DaySchedule day = days.get(after.getDate());
+            if (day != null) {
+                day.put(after);
+            }
+        });
+    }
+
+    public void lessonDeleted(Slot before) {
+        afterCommit(() -> removeFromDay(before.getDate(), before.getLessonId()));
+    }
+
+    // Занятия этих дней менялись без известных id (пакетная вставка) —
+    // после коммита дни выбрасываются и будут перечитаны при обращении
+    public void daysChanged(Collection<LocalDate> dates) {
+        List<LocalDate> copy = List.copyOf(dates);
+        afterCommit(() -> copy.forEach(days::remove));
+    }
+
+    // Первый конфликт candidate среди уже найденных занятий (порядок ресурсов — как в findConflict)
+    public static Optional<Conflict> firstConflict(Slot candidate, List<Slot> others) {
+        for (Resource r : Resource.values()) {
+            for (Slot other : others) {
+                if (!other.getLessonId().equals(candidate.getLessonId())
+                        && other.resourceId(r).equals(candidate.resourceId(r))) {
+                    return Optional.of(new Conflict(r, other));
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    // День в индексе разошёлся с БД — выбрасываем, при следующем обращении он перечитается
+    public void invalidate(LocalDate date) {
+        modCount.incrementAndGet();
+        days.remove(date);
+    }
+
+    public void clear() {
+        modCount.incrementAndGet();
+        days.clear();
+    }
+
+    private DaySchedule day(LocalDate date) {
+        DaySchedule day = days.get(date);
+        if (day != null) {
+            return day;
+        }
+
+        // запрос к БД — вне блокировок карты
+        long seen = modCount.get();
+        DaySchedule loaded = new DaySchedule();
+        for (LessonRepository.LessonSlot row : lessonRepository.findSlotsBetween(date, date)) {
+            loaded.put(Slot.of(row));
+        }
+        if (modCount.get() != seen) {
+            return loaded; // за время загрузки что-то закоммитили — для этой проверки сойдёт, но не кэшируем
+        }
+        return cache(date, loaded);
+    }
+
+    private DaySchedule cache(LocalDate date, DaySchedule loaded) {
+        while (days.size() >= MAX_DAYS && !days.containsKey(date)) {
+            LocalDate farthest = days.keySet().stream()
+                    .max(Comparator.comparingLong(d -> Math.abs(ChronoUnit.DAYS.between(date, d))))
+                    .orElse(null);
+            if (farthest == null) {
+                break;
+            }
+            days.remove(farthest);
+        }
+        DaySchedule existing = days.putIfAbsent(date, loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    private void removeFromDay(LocalDate date, Long lessonId) {
+        DaySchedule day = days.get(date);
+        if (day != null) {
+            day.remove(lessonId);
+        }
+    }
+
+    private void afterCommit(Runnable change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(change);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                apply(change);
+            }
+        });
+    }
+
+    private void apply(Runnable change) {
+        modCount.incrementAndGet();
+        change.run();
+    }
+}
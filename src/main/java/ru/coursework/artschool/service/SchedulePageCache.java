@@ -0,0 +1,146 @@
+package ru.coursework.artschool.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.DigestUtils;
+import ru.coursework.artschool.model.*;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Кэш готовой HTML-страницы расписания на день для гостей (см. SchedulePageCacheFilter).
+//
+// Ключ — дата. Запись занятий сбрасывает только затронутые дни, изменение групп,
+// преподавателей, аудиторий и дисциплин (их названия есть на странице) — весь кэш.
+// Как и в ReportCache, сброс делается после коммита, на время коммита кэш обходится,
+// а страница, отрисованная до сброса, в кэш уже не попадёт (проверка поколения).
+@Component
+public class SchedulePageCache {
+
+    private static final Class<?>[] TRACKED_TYPES = {
+            Group.class, Teacher.class, Room.class, Subject.class
+    };
+
+    public static final class Page {
+        private final byte[] body;
+        private final String contentType;
+        private final String etag;
+        private final long lastModified;
+
+        Page(byte[] body, String contentType, long lastModified) {
+            this.body = body;
+            this.contentType = contentType;
+            this.etag = "\"" + DigestUtils.md5DigestAsHex(body) + "\"";
+            // Last-Modified передаётся с точностью до секунды
+            this.lastModified = lastModified / 1000 * 1000;
+        }
+
+        public byte[] getBody() { return body; }
+        public String getContentType() { return contentType; }
+        public String getEtag() { return etag; }
+        public long getLastModified() { return lastModified; }
+    }
+
+    private final int maxSize;
+    private final LinkedHashMap<LocalDate, Page> entries;
+
+    // всё состояние ниже защищено монитором this
+    private long generation;
+    private int writesInFlight;
+
+    public SchedulePageCache(@Value("${artschool.schedule-page-cache.max-size:200}") int maxSize) {
+        this.maxSize = maxSize;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<LocalDate, Page> eldest) {
+                return size() > SchedulePageCache.this.maxSize;
+            }
+        };
+    }
+
+    // null — страницы нет (или идёт коммит записи), её нужно отрисовать
+    public synchronized Page get(LocalDate date) {
+        return writesInFlight == 0 ? entries.get(date) : null;
+    }
+
+    // Поколение, с которым начинается отрисовка страницы; передаётся в put
+    public synchronized long currentGeneration() {
+        return generation;
+    }
+
+    // Сохраняет отрисованную страницу, если с начала отрисовки ничего не сбрасывалось
+    public Page put(LocalDate date, byte[] body, String contentType, long loadGeneration) {
+        Page page = new Page(body, contentType, System.currentTimeMillis());
+        synchronized (this) {
+            if (loadGeneration == generation && writesInFlight == 0) {
+                entries.put(date, page);
+            }
+        }
+        return page;
+    }
+
+    public synchronized void invalidate(Collection<LocalDate> dates) {
+        generation++;
+        entries.keySet().removeAll(dates);
+    }
+
+    public synchronized void invalidateAll() {
+        generation++;
+        entries.clear();
+    }
+
+    @EventListener
+    public void onLessonsChanged(LessonsChangedEvent event) {
+        List<LocalDate> dates = List.copyOf(event.getDates());
+        afterCommit(() -> invalidate(dates));
+    }
+
+    @EventListener
+    public void onEntityChanged(EntityChangedEvent event) {
+        if (event.isAbout(TRACKED_TYPES)) {
+            afterCommit(this::invalidateAll);
+        }
+    }
+
+    private void afterCommit(Runnable invalidation) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            // запись вне транзакции уже видна всем
+            invalidation.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private boolean committing;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                committing = true;
+                beginWrite();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (committing) {
+                    endWrite(status == STATUS_COMMITTED ? invalidation : null);
+                }
+            }
+        });
+    }
+
+    private synchronized void beginWrite() {
+        writesInFlight++;
+    }
+
+    private synchronized void endWrite(Runnable invalidation) {
+        writesInFlight--;
+        if (invalidation != null) {
+            invalidation.run();
+        }
+    }
+}
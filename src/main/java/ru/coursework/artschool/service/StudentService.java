@@ -1,5 +1,8 @@
 package ru.coursework.artschool.service;
 
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.coursework.artschool.model.Group;
@@ -16,11 +19,14 @@ public class StudentService {
 
     private final StudentRepository studentRepository;
     private final GroupRepository groupRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     public StudentService(StudentRepository studentRepository,
-                          GroupRepository groupRepository) {
+                          GroupRepository groupRepository,
+                          ApplicationEventPublisher eventPublisher) {
         this.studentRepository = studentRepository;
         this.groupRepository = groupRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     @Transactional(readOnly = true)
@@ -34,32 +40,48 @@ public class StudentService {
                     : studentRepository.findAll();
         }
 
-        // нормализуем запрос
-        String normalized = query.trim().toLowerCase();
-        String[] parts = normalized.split("\\s+"); // разбиваем по пробелам
-
-        // загружаем всех учеников (оптимизируем при необходимости)
-        List<Student> baseList = hasGroup
-                ? studentRepository.findByGroup_Id(groupId)
-                : studentRepository.findAll();
-
-        // фильтрация
-        return baseList.stream()
-                .filter(student -> {
-                    String name = student.getFullName().toLowerCase();
-
-                    // каждое слово из поиска должно встречаться в ФИО
-                    for (String p : parts) {
-                        if (!name.contains(p)) {
-                            return false;
-                        }
-                    }
-                    return true;
-                })
-                .toList();
+        return studentRepository.findAll(searchSpec(query, groupId), Sort.by("fullName", "id"));
     }
 
+    // Страница списка учеников (по ФИО), с теми же условиями поиска
+    @Transactional(readOnly = true)
+    public KeysetPage<Student> searchPage(String query, Long groupId, String cursor, int size) {
+        return KeysetPage.fetch(studentRepository, searchSpec(query, groupId),
+                "fullName", Student::getFullName, Student::getId, cursor, size);
+    }
+
+    // Первые limit учеников по тем же словам поиска (для общего поиска); пустой запрос — ничего
+    @Transactional(readOnly = true)
+    public List<Student> searchTop(String query, int limit) {
+        Specification<Student> spec = searchSpec(query, null);
+        if (spec == null) {
+            return List.of();
+        }
+        return studentRepository.findBy(spec, q -> q.sortBy(Sort.by("fullName", "id")).limit(limit).all());
+    }
 
+    // Каждое слово из поиска должно встречаться в ФИО — проверяет PostgreSQL:
+    // lower(full_name) LIKE '%слово%' по каждому слову, по индексу
+    // idx_students_full_name_trgm (pg_trgm, см. schema.sql). null — без условий.
+    private static Specification<Student> searchSpec(String query, Long groupId) {
+        Specification<Student> spec = null;
+        if (query != null && !query.isBlank()) {
+            for (String part : query.trim().toLowerCase().split("\\s+")) {
+                Specification<Student> token = nameContains(part);
+                spec = (spec == null) ? token : spec.and(token);
+            }
+        }
+        if (groupId != null) {
+            Specification<Student> inGroup = (root, cq, cb) -> cb.equal(root.get("group").get("id"), groupId);
+            spec = (spec == null) ? inGroup : spec.and(inGroup);
+        }
+        return spec;
+    }
+
+    private static Specification<Student> nameContains(String part) {
+        String pattern = KeysetPage.likePattern(part);
+        return (root, cq, cb) -> cb.like(cb.lower(root.get("fullName")), pattern, '\\');
+    }
 
     @Transactional(readOnly = true)
     public Optional<Student> findById(Long id) {
@@ -70,7 +92,9 @@ public class StudentService {
     public Student createFromForm(StudentForm form) {
         Student student = new Student();
         applyFormToEntity(form, student);
-        return studentRepository.save(student);
+        Student saved = studentRepository.save(student);
+        eventPublisher.publishEvent(new EntityChangedEvent(Student.class, saved.getId()));
+        return saved;
     }
 
     @Transactional
@@ -79,12 +103,15 @@ public class StudentService {
                 .orElseThrow(() -> new IllegalArgumentException("Ученик не найден"));
 
         applyFormToEntity(form, existing);
-        return studentRepository.save(existing);
+        Student saved = studentRepository.save(existing);
+        eventPublisher.publishEvent(new EntityChangedEvent(Student.class, id));
+        return saved;
     }
 
     @Transactional
     public void deleteById(Long id) {
         studentRepository.deleteById(id);
+        eventPublisher.publishEvent(new EntityChangedEvent(Student.class, id));
     }
 
     @Transactional(readOnly = true)
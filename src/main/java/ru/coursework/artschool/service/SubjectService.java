@@ -1,5 +1,6 @@
 package ru.coursework.artschool.service;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.coursework.artschool.model.Subject;
@@ -12,9 +13,12 @@ import java.util.Optional;
 public class SubjectService {
 
     private final SubjectRepository subjectRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public SubjectService(SubjectRepository subjectRepository) {
+    public SubjectService(SubjectRepository subjectRepository,
+                          ApplicationEventPublisher eventPublisher) {
         this.subjectRepository = subjectRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     @Transactional(readOnly = true)
@@ -31,6 +35,14 @@ public class SubjectService {
         return subjectRepository.findByNameContainingIgnoreCaseOrCodeContainingIgnoreCase(q, q);
     }
 
+    // Страница списка дисциплин (по коду), поиск по коду или названию
+    @Transactional(readOnly = true)
+    public KeysetPage<Subject> searchPage(String query, String cursor, int size) {
+        return KeysetPage.fetch(subjectRepository,
+                KeysetPage.containsIgnoreCase(query, "code", "name"),
+                "code", Subject::getCode, Subject::getId, cursor, size);
+    }
+
     @Transactional(readOnly = true)
     public Optional<Subject> findById(Long id) {
         return subjectRepository.findById(id);
@@ -42,7 +54,9 @@ public class SubjectService {
         if (subjectRepository.existsByCode(subject.getCode())) {
             throw new IllegalArgumentException("Дисциплина с таким кодом уже существует");
         }
-        return subjectRepository.save(subject);
+        Subject saved = subjectRepository.save(subject);
+        eventPublisher.publishEvent(new EntityChangedEvent(Subject.class, saved.getId()));
+        return saved;
     }
 
     @Transactional
@@ -61,11 +75,14 @@ public class SubjectService {
         existing.setDescription(form.getDescription());
         existing.setHours(form.getHours());
 
-        return subjectRepository.save(existing);
+        Subject saved = subjectRepository.save(existing);
+        eventPublisher.publishEvent(new EntityChangedEvent(Subject.class, id));
+        return saved;
     }
 
     @Transactional
     public void deleteById(Long id) {
         subjectRepository.deleteById(id);
+        eventPublisher.publishEvent(new EntityChangedEvent(Subject.class, id));
     }
 }
@@ -1,5 +1,6 @@
 package ru.coursework.artschool.service;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.coursework.artschool.model.Teacher;
@@ -21,11 +22,14 @@ public class TeacherService {
 
     private final TeacherRepository teacherRepository;
     private final SubjectRepository subjectRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     public TeacherService(TeacherRepository teacherRepository,
-                          SubjectRepository subjectRepository) {
+                          SubjectRepository subjectRepository,
+                          ApplicationEventPublisher eventPublisher) {
         this.teacherRepository = teacherRepository;
         this.subjectRepository = subjectRepository;
+        this.eventPublisher = eventPublisher;
     }
 
 
@@ -44,6 +48,14 @@ public class TeacherService {
                 .findByFullNameContainingIgnoreCaseOrSpecializationContainingIgnoreCase(q, q);
     }
 
+    // Страница списка преподавателей (по ФИО), поиск по ФИО или специализации
+    @Transactional(readOnly = true)
+    public KeysetPage<Teacher> searchPage(String query, String cursor, int size) {
+        return KeysetPage.fetch(teacherRepository,
+                KeysetPage.containsIgnoreCase(query, "fullName", "specialization"),
+                "fullName", Teacher::getFullName, Teacher::getId, cursor, size);
+    }
+
     @Transactional(readOnly = true)
     public Optional<Teacher> findById(Long id) {
         return teacherRepository.findById(id);
@@ -53,7 +65,9 @@ public class TeacherService {
     public Teacher createFromForm(TeacherForm form) {
         Teacher teacher = new Teacher();
         applyFormToEntity(form, teacher);
-        return teacherRepository.save(teacher);
+        Teacher saved = teacherRepository.save(teacher);
+        eventPublisher.publishEvent(new EntityChangedEvent(Teacher.class, saved.getId()));
+        return saved;
     }
 
     @Transactional
@@ -62,7 +76,9 @@ public class TeacherService {
                 .orElseThrow(() -> new IllegalArgumentException("Преподаватель не найден"));
 
         applyFormToEntity(form, existing);
-        return teacherRepository.save(existing);
+        Teacher saved = teacherRepository.save(existing);
+        eventPublisher.publishEvent(new EntityChangedEvent(Teacher.class, id));
+        return saved;
     }
 
     @Transactional(readOnly = true)
@@ -112,5 +128,6 @@ public class TeacherService {
     @Transactional
     public void deleteById(Long id) {
         teacherRepository.deleteById(id);
+        eventPublisher.publishEvent(new EntityChangedEvent(Teacher.class, id));
     }
 }
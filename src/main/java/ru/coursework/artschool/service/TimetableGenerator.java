@@ -0,0 +1,627 @@
+package ru.coursework.artschool.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.coursework.artschool.model.*;
+import ru.coursework.artschool.repository.*;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Генератор недельного расписания на период (например, семестр).
+//
+// Требования: для каждой выбранной пары (группа, дисциплина) — число занятий в неделю
+// из Subject.hours (одно занятие = 2 академических часа, часы делятся на недели периода).
+// Вести занятие может только преподаватель с этой дисциплиной (Teacher.subjects),
+// аудитория должна вмещать группу (Room.capacity, null — без ограничения).
+// Время — сетка слотов по правилам LessonService (90 минут, без обеда).
+//
+// Поиск: рандомизированная жадная расстановка с перезапусками на всех ядрах до
+// истечения бюджета времени; занятость ресурса на неделе — битовая маска long
+// (день * число слотов + слот). Существующие занятия периода занимают слоты заранее.
+@Service
+public class TimetableGenerator {
+
+    private static final Duration BREAK = Duration.ofMinutes(10);
+    private static final Duration GRID_STEP = Duration.ofMinutes(10);
+
+    private static final int ACADEMIC_HOURS_PER_LESSON = 2;
+
+    // штрафы мягких ограничений (неразмещённое занятие стоит больше любой их суммы)
+    private static final int UNMET_PENALTY = 1_000_000;
+    private static final int SAME_SUBJECT_SAME_DAY_PENALTY = 50;
+    private static final int TEACHER_SWITCH_PENALTY = 5;
+    private static final int MAX_LESSONS_PER_DAY = 4;
+    private static final int OVERLOADED_DAY_PENALTY = 20;
+
+    private final LessonService lessonService;
+    private final LessonRepository lessonRepository;
+    private final GroupRepository groupRepository;
+    private final SubjectRepository subjectRepository;
+    private final TeacherRepository teacherRepository;
+    private final RoomRepository roomRepository;
+    private final StudentRepository studentRepository;
+
+    private final ExecutorService executor;
+    private final int workers;
+
+    public TimetableGenerator(LessonService lessonService,
+                              LessonRepository lessonRepository,
+                              GroupRepository groupRepository,
+                              SubjectRepository subjectRepository,
+                              TeacherRepository teacherRepository,
+                              RoomRepository roomRepository,
+                              StudentRepository studentRepository) {
+        this.lessonService = lessonService;
+        this.lessonRepository = lessonRepository;
+        this.groupRepository = groupRepository;
+        this.subjectRepository = subjectRepository;
+        this.teacherRepository = teacherRepository;
+        this.roomRepository = roomRepository;
+        this.studentRepository = studentRepository;
+
+        this.workers = Math.max(1, Runtime.getRuntime().availableProcessors());
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(workers, r -> {
+            Thread t = new Thread(r, "timetable-" + threadNumber.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // ===== Результат =====
+
+    public static class Placement {
+        private final DayOfWeek day;
+        private final LocalTime start;
+        private final LocalTime end;
+        private final Long groupId;
+        private final String groupCode;
+        private final Long subjectId;
+        private final String subjectCode;
+        private final Long teacherId;
+        private final String teacherName;
+        private final Long roomId;
+        private final String roomCode;
+
+        Placement(DayOfWeek day, LocalTime start, LocalTime end,
+                  Long groupId, String groupCode, Long subjectId, String subjectCode,
+                  Long teacherId, String teacherName, Long roomId, String roomCode) {
+            this.day = day;
+            this.start = start;
+            this.end = end;
+            this.groupId = groupId;
+            this.groupCode = groupCode;
+            this.subjectId = subjectId;
+            this.subjectCode = subjectCode;
+            this.teacherId = teacherId;
+            this.teacherName = teacherName;
+            this.roomId = roomId;
+            this.roomCode = roomCode;
+        }
+
+        public DayOfWeek getDay() { return day; }
+        public LocalTime getStart() { return start; }
+        public LocalTime getEnd() { return end; }
+        public Long getGroupId() { return groupId; }
+        public String getGroupCode() { return groupCode; }
+        public Long getSubjectId() { return subjectId; }
+        public String getSubjectCode() { return subjectCode; }
+        public Long getTeacherId() { return teacherId; }
+        public String getTeacherName() { return teacherName; }
+        public Long getRoomId() { return roomId; }
+        public String getRoomCode() { return roomCode; }
+    }
+
+    public static class Unmet {
+        private final String groupCode;
+        private final String subjectCode;
+        private final int required;
+        private final int missing;
+        private final String reason;
+
+        Unmet(String groupCode, String subjectCode, int required, int missing, String reason) {
+            this.groupCode = groupCode;
+            this.subjectCode = subjectCode;
+            this.required = required;
+            this.missing = missing;
+            this.reason = reason;
+        }
+
+        public String getGroupCode() { return groupCode; }
+        public String getSubjectCode() { return subjectCode; }
+        public int getRequired() { return required; }
+        public int getMissing() { return missing; }
+        public String getReason() { return reason; }
+    }
+
+    public static class Timetable {
+        private final LocalDate startDate;
+        private final LocalDate endDate;
+        private final List<Placement> placements;
+        private final List<Unmet> unmet;
+        private final long attempts;
+        private final long elapsedMillis;
+        // (groupId, subjectId) -> сколько занятий нужно за весь период (часы дисциплины)
+        private final Map<List<Long>, Integer> lessonsTotal;
+
+        Timetable(LocalDate startDate, LocalDate endDate, List<Placement> placements,
+                  List<Unmet> unmet, long attempts, long elapsedMillis,
+                  Map<List<Long>, Integer> lessonsTotal) {
+            this.startDate = startDate;
+            this.endDate = endDate;
+            this.placements = placements;
+            this.unmet = unmet;
+            this.attempts = attempts;
+            this.elapsedMillis = elapsedMillis;
+            this.lessonsTotal = lessonsTotal;
+        }
+
+        public LocalDate getStartDate() { return startDate; }
+        public LocalDate getEndDate() { return endDate; }
+        public List<Placement> getPlacements() { return placements; }
+        public List<Unmet> getUnmet() { return unmet; }
+        public long getAttempts() { return attempts; }
+        public long getElapsedMillis() { return elapsedMillis; }
+
+        public int getMissingLessons() {
+            return unmet.stream().mapToInt(Unmet::getMissing).sum();
+        }
+    }
+
+    // ===== Входные данные одной задачи (только числа, общие для всех потоков) =====
+
+    private static final class Requirement {
+        final int group;
+        final Long subjectId;
+        final String subjectCode;
+        final int lessonsPerWeek;
+        final int lessonsTotal; // за весь период
+        final int[] teachers;
+        final int[] rooms; // по возрастанию вместимости
+        final String reason; // почему нельзя разместить вовсе (null — можно пытаться)
+
+        Requirement(int group, Long subjectId, String subjectCode, int lessonsPerWeek, int lessonsTotal,
+                    int[] teachers, int[] rooms, String reason) {
+            this.group = group;
+            this.subjectId = subjectId;
+            this.subjectCode = subjectCode;
+            this.lessonsPerWeek = lessonsPerWeek;
+            this.lessonsTotal = lessonsTotal;
+            this.teachers = teachers;
+            this.rooms = rooms;
+            this.reason = reason;
+        }
+    }
+
+    private static final class Problem {
+        List<DayOfWeek> days;
+        List<LocalTime> slotStarts;
+        int cells;
+
+        List<Group> groups;
+        List<Teacher> teachers;
+        List<Room> rooms;
+        List<Requirement> requirements;
+
+        long[] groupBusy;
+        long[] teacherBusy;
+        long[] roomBusy;
+    }
+
+    // одна расстановка: для каждого занятия требования — ячейка, преподаватель, аудитория
+    private static final class Solution {
+        final int[] unitRequirement;
+        final int[] cell;
+        final int[] teacher;
+        final int[] room;
+        int score;
+
+        Solution(int units) {
+            unitRequirement = new int[units];
+            cell = new int[units];
+            teacher = new int[units];
+            room = new int[units];
+        }
+    }
+
+    // ===== Генерация =====
+
+    @Transactional(readOnly = true)
+    public Timetable generate(LocalDate startDate, LocalDate endDate, Set<DayOfWeek> weekdays,
+                              Collection<Long> groupIds, Collection<Long> subjectIds,
+                              Duration budget) {
+        Problem problem = buildProblem(startDate, endDate, weekdays, groupIds, subjectIds);
+
+        int units = 0;
+        for (Requirement r : problem.requirements) {
+            if (r.reason == null) {
+                units += r.lessonsPerWeek;
+            }
+        }
+        int totalUnits = units;
+
+        long startedAt = System.nanoTime();
+        long deadline = startedAt + budget.toNanos();
+        AtomicBoolean perfectFound = new AtomicBoolean();
+        AtomicInteger attempts = new AtomicInteger();
+
+        List<Future<Solution>> futures = new ArrayList<>();
+        for (int w = 0; w < workers; w++) {
+            futures.add(executor.submit(() -> {
+                Solution best = null;
+                // хотя бы одна попытка, даже если бюджет очень мал
+                do {
+                    Solution candidate = attempt(problem, totalUnits, ThreadLocalRandom.current());
+                    attempts.incrementAndGet();
+                    if (best == null || candidate.score < best.score) {
+                        best = candidate;
+                        if (best.score == 0) {
+                            perfectFound.set(true);
+                        }
+                    }
+                } while (!perfectFound.get() && System.nanoTime() < deadline
+                        && !Thread.currentThread().isInterrupted());
+                return best;
+            }));
+        }
+
+        Solution best = null;
+        try {
+            for (Future<Solution> f : futures) {
+                Solution s = f.get();
+                if (best == null || s.score < best.score) {
+                    best = s;
+                }
+            }
+        } catch (InterruptedException ex) {
+            futures.forEach(f -> f.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Генерация расписания прервана", ex);
+        } catch (java.util.concurrent.ExecutionException ex) {
+            throw new IllegalStateException("Ошибка генерации расписания", ex.getCause());
+        }
+
+        long elapsedMillis = (System.nanoTime() - startedAt) / 1_000_000;
+        return toTimetable(problem, best, startDate, endDate, attempts.get(), elapsedMillis);
+    }
+
+    // Сохраняет расписание: занятие на каждую подходящую дату периода, пока по паре
+    // «группа — дисциплина» не набрано нужное по часам число занятий
+    @Transactional
+    public int save(Timetable timetable) {
+        List<Lesson> lessons = new ArrayList<>();
+        Map<List<Long>, Integer> saved = new HashMap<>();
+        for (LocalDate date = timetable.getStartDate(); !date.isAfter(timetable.getEndDate()); date = date.plusDays(1)) {
+            for (Placement p : timetable.getPlacements()) {
+                if (p.getDay() != date.getDayOfWeek()) {
+                    continue;
+                }
+                List<Long> key = List.of(p.getGroupId(), p.getSubjectId());
+                int count = saved.getOrDefault(key, 0);
+                if (count >= timetable.lessonsTotal.getOrDefault(key, Integer.MAX_VALUE)) {
+                    continue;
+                }
+                saved.put(key, count + 1);
+                Lesson lesson = new Lesson();
+                lesson.setDate(date);
+                lesson.setStartTime(p.getStart());
+                lesson.setEndTime(p.getEnd());
+                lesson.setGroup(groupRepository.getReferenceById(p.getGroupId()));
+                lesson.setSubject(subjectRepository.getReferenceById(p.getSubjectId()));
+                lesson.setTeacher(teacherRepository.getReferenceById(p.getTeacherId()));
+                lesson.setRoom(roomRepository.getReferenceById(p.getRoomId()));
+                lessons.add(lesson);
+            }
+        }
+        return lessonService.createAll(lessons);
+    }
+
+    private Problem buildProblem(LocalDate startDate, LocalDate endDate, Set<DayOfWeek> weekdays,
+                                 Collection<Long> groupIds, Collection<Long> subjectIds) {
+        if (endDate.isBefore(startDate)) {
+            throw new IllegalArgumentException("Дата окончания раньше даты начала");
+        }
+        if (weekdays.isEmpty()) {
+            throw new IllegalArgumentException("Выберите хотя бы один день недели");
+        }
+
+        Problem p = new Problem();
+        p.days = new ArrayList<>(new TreeSet<>(weekdays));
+        p.slotStarts = new ArrayList<>();
+        LocalTime t = LessonService.DAY_START;
+        while (!t.plus(LessonService.LESSON_DURATION).isAfter(LessonService.DAY_END)) {
+            LocalTime end = t.plus(LessonService.LESSON_DURATION);
+            if (lessonService.isAllowedTime(t, end)) {
+                p.slotStarts.add(t);
+                t = end.plus(BREAK);
+            } else {
+                t = t.plus(GRID_STEP);
+            }
+        }
+        p.cells = p.days.size() * p.slotStarts.size();
+        if (p.cells > Long.SIZE) {
+            throw new IllegalArgumentException("Слишком много слотов в неделе");
+        }
+
+        p.groups = new ArrayList<>(groupRepository.findAllById(groupIds));
+        List<Subject> subjects = new ArrayList<>(subjectRepository.findAllById(subjectIds));
+        p.teachers = teacherRepository.findAll();
+        p.rooms = new ArrayList<>(roomRepository.findAll());
+        p.groups.sort(Comparator.comparing(Group::getCode, String.CASE_INSENSITIVE_ORDER));
+        subjects.sort(Comparator.comparing(Subject::getCode, String.CASE_INSENSITIVE_ORDER));
+        p.rooms.sort(Comparator.comparing((Room r) -> r.getCapacity() == null ? Integer.MAX_VALUE : r.getCapacity()));
+
+        Map<Long, Integer> groupIndex = indexOf(p.groups.stream().map(Group::getId).toList());
+        Map<Long, Integer> teacherIndex = indexOf(p.teachers.stream().map(Teacher::getId).toList());
+        Map<Long, Integer> roomIndex = indexOf(p.rooms.stream().map(Room::getId).toList());
+
+        Map<Long, Long> groupSizes = new HashMap<>();
+        for (StudentRepository.GroupStudentCount c : studentRepository.countByGroup()) {
+            groupSizes.put(c.getGroupId(), c.getStudentCount());
+        }
+        Map<Long, List<Integer>> teachersBySubject = new HashMap<>();
+        for (TeacherRepository.TeacherSubjectPair pair : teacherRepository.findTeacherSubjectPairs()) {
+            teachersBySubject.computeIfAbsent(pair.getSubjectId(), id -> new ArrayList<>())
+                    .add(teacherIndex.get(pair.getTeacherId()));
+        }
+
+        long days = ChronoUnit.DAYS.between(startDate, endDate) + 1;
+        int weeks = (int) Math.max(1, (days + 6) / 7);
+
+        p.requirements = new ArrayList<>();
+        for (Group g : p.groups) {
+            long size = groupSizes.getOrDefault(g.getId(), 0L);
+            int[] rooms = p.rooms.stream()
+                    .filter(r -> r.getCapacity() == null || r.getCapacity() >= size)
+                    .mapToInt(r -> roomIndex.get(r.getId()))
+                    .toArray();
+
+            for (Subject s : subjects) {
+                int[] teachers = teachersBySubject.getOrDefault(s.getId(), List.of())
+                        .stream().mapToInt(Integer::intValue).toArray();
+
+                int perWeek = 0;
+                int lessonsTotal = 0;
+                String reason = null;
+                if (s.getHours() == null || s.getHours() <= 0) {
+                    reason = "У дисциплины не задано количество часов";
+                } else {
+                    // недельная сетка округляется вверх; лишние недели при сохранении
+                    // не заполняются — всего занятий ровно lessonsTotal (см. save)
+                    lessonsTotal = (s.getHours() + ACADEMIC_HOURS_PER_LESSON - 1) / ACADEMIC_HOURS_PER_LESSON;
+                    perWeek = (lessonsTotal + weeks - 1) / weeks;
+                    if (teachers.length == 0) {
+                        reason = "Нет преподавателя, ведущего эту дисциплину";
+                    } else if (rooms.length == 0) {
+                        reason = "Нет аудитории на " + size + " учеников";
+                    }
+                }
+                p.requirements.add(new Requirement(groupIndex.get(g.getId()), s.getId(), s.getCode(),
+                        perWeek, lessonsTotal, teachers, rooms, reason));
+            }
+        }
+
+        p.groupBusy = new long[p.groups.size()];
+        p.teacherBusy = new long[p.teachers.size()];
+        p.roomBusy = new long[p.rooms.size()];
+        markExistingLessons(p, startDate, endDate, groupIndex, teacherIndex, roomIndex);
+        return p;
+    }
+
+    // Слот недели занят ресурсом, если он занят хотя бы в одну из недель периода
+    private void markExistingLessons(Problem p, LocalDate startDate, LocalDate endDate,
+                                     Map<Long, Integer> groupIndex,
+                                     Map<Long, Integer> teacherIndex,
+                                     Map<Long, Integer> roomIndex) {
+        for (LessonRepository.LessonSlot l : lessonRepository.findSlotsBetween(startDate, endDate)) {
+            int day = p.days.indexOf(l.getDate().getDayOfWeek());
+            if (day < 0) {
+                continue;
+            }
+            long mask = 0;
+            for (int s = 0; s < p.slotStarts.size(); s++) {
+                LocalTime start = p.slotStarts.get(s);
+                LocalTime end = start.plus(LessonService.LESSON_DURATION);
+                if (start.isBefore(l.getEndTime()) && end.isAfter(l.getStartTime())) {
+                    mask |= 1L << (day * p.slotStarts.size() + s);
+                }
+            }
+            Integer g = groupIndex.get(l.getGroupId());
+            if (g != null) p.groupBusy[g] |= mask;
+            Integer t = teacherIndex.get(l.getTeacherId());
+            if (t != null) p.teacherBusy[t] |= mask;
+            Integer r = roomIndex.get(l.getRoomId());
+            if (r != null) p.roomBusy[r] |= mask;
+        }
+    }
+
+    // Одна рандомизированная жадная расстановка.
+    // Сначала — требования с наименьшим выбором (преподаватели × аудитории),
+    // внутри равных — случайный порядок; для каждого занятия — ячейка с наименьшим штрафом.
+    private Solution attempt(Problem p, int units, Random random) {
+        long[] groupBusy = p.groupBusy.clone();
+        long[] teacherBusy = p.teacherBusy.clone();
+        long[] roomBusy = p.roomBusy.clone();
+        int slotsPerDay = p.slotStarts.size();
+
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < p.requirements.size(); i++) {
+            if (p.requirements.get(i).reason == null) {
+                order.add(i);
+            }
+        }
+        Collections.shuffle(order, random);
+        order.sort(Comparator.comparingInt(i ->
+                p.requirements.get(i).teachers.length * p.requirements.get(i).rooms.length));
+
+        Solution sol = new Solution(units);
+        int u = 0;
+        int score = 0;
+
+        for (int reqIndex : order) {
+            Requirement req = p.requirements.get(reqIndex);
+            long subjectDays = 0; // дни, в которые у группы уже есть эта дисциплина
+            int lastTeacher = -1;
+
+            for (int k = 0; k < req.lessonsPerWeek; k++, u++) {
+                sol.unitRequirement[u] = reqIndex;
+                sol.cell[u] = -1;
+
+                int bestCell = -1, bestTeacher = -1, bestRoom = -1;
+                int bestPenalty = Integer.MAX_VALUE;
+                int bestTie = Integer.MAX_VALUE;
+
+                long free = ~groupBusy[req.group];
+                for (int cell = 0; cell < p.cells; cell++) {
+                    if ((free & (1L << cell)) == 0) {
+                        continue;
+                    }
+                    int day = cell / slotsPerDay;
+                    long dayMask = ((1L << slotsPerDay) - 1) << (day * slotsPerDay);
+
+                    int teacher = pickTeacher(req, teacherBusy, cell, lastTeacher, random);
+                    if (teacher < 0) continue;
+                    int room = pickRoom(req, roomBusy, cell);
+                    if (room < 0) continue;
+
+                    // случайное число только разводит клетки с равным штрафом:
+                    // в оценку решения попадают лишь настоящие штрафы, и идеальное даёт 0
+                    int penalty = 0;
+                    int tie = random.nextInt();
+                    if ((subjectDays & (1L << day)) != 0) penalty += SAME_SUBJECT_SAME_DAY_PENALTY;
+                    if (Long.bitCount(groupBusy[req.group] & dayMask) >= MAX_LESSONS_PER_DAY) {
+                        penalty += OVERLOADED_DAY_PENALTY;
+                    }
+                    if (lastTeacher >= 0 && teacher != lastTeacher) penalty += TEACHER_SWITCH_PENALTY;
+
+                    if (penalty < bestPenalty || (penalty == bestPenalty && tie < bestTie)) {
+                        bestPenalty = penalty;
+                        bestTie = tie;
+                        bestCell = cell;
+                        bestTeacher = teacher;
+                        bestRoom = room;
+                    }
+                }
+
+                if (bestCell < 0) {
+                    score += UNMET_PENALTY;
+                    continue;
+                }
+
+                long bit = 1L << bestCell;
+                groupBusy[req.group] |= bit;
+                teacherBusy[bestTeacher] |= bit;
+                roomBusy[bestRoom] |= bit;
+                subjectDays |= 1L << (bestCell / slotsPerDay);
+                lastTeacher = bestTeacher;
+
+                sol.cell[u] = bestCell;
+                sol.teacher[u] = bestTeacher;
+                sol.room[u] = bestRoom;
+                score += bestPenalty;
+            }
+        }
+        sol.score = score;
+        return sol;
+    }
+
+    // свободный преподаватель: по возможности тот же, что уже ведёт эту дисциплину у группы
+    private static int pickTeacher(Requirement req, long[] teacherBusy, int cell, int preferred, Random random) {
+        long bit = 1L << cell;
+        if (preferred >= 0 && (teacherBusy[preferred] & bit) == 0) {
+            return preferred;
+        }
+        int n = req.teachers.length;
+        int offset = random.nextInt(n);
+        for (int i = 0; i < n; i++) {
+            int t = req.teachers[(offset + i) % n];
+            if ((teacherBusy[t] & bit) == 0) {
+                return t;
+            }
+        }
+        return -1;
+    }
+
+    // самая маленькая свободная аудитория, в которую помещается группа
+    private static int pickRoom(Requirement req, long[] roomBusy, int cell) {
+        long bit = 1L << cell;
+        for (int r : req.rooms) {
+            if ((roomBusy[r] & bit) == 0) {
+                return r;
+            }
+        }
+        return -1;
+    }
+
+    private Timetable toTimetable(Problem p, Solution best, LocalDate startDate, LocalDate endDate,
+                                  long attempts, long elapsedMillis) {
+        int slotsPerDay = p.slotStarts.size();
+        List<Placement> placements = new ArrayList<>();
+        int[] placed = new int[p.requirements.size()];
+
+        for (int u = 0; u < best.cell.length; u++) {
+            if (best.cell[u] < 0) {
+                continue;
+            }
+            Requirement req = p.requirements.get(best.unitRequirement[u]);
+            placed[best.unitRequirement[u]]++;
+
+            LocalTime start = p.slotStarts.get(best.cell[u] % slotsPerDay);
+            Group g = p.groups.get(req.group);
+            Teacher t = p.teachers.get(best.teacher[u]);
+            Room r = p.rooms.get(best.room[u]);
+            placements.add(new Placement(
+                    p.days.get(best.cell[u] / slotsPerDay), start, start.plus(LessonService.LESSON_DURATION),
+                    g.getId(), g.getCode(), req.subjectId, req.subjectCode,
+                    t.getId(), t.getFullName(), r.getId(), r.getCode()));
+        }
+        placements.sort(Comparator.comparing(Placement::getDay)
+                .thenComparing(Placement::getStart)
+                .thenComparing(Placement::getGroupCode, String.CASE_INSENSITIVE_ORDER));
+
+        List<Unmet> unmet = new ArrayList<>();
+        for (int i = 0; i < p.requirements.size(); i++) {
+            Requirement req = p.requirements.get(i);
+            String groupCode = p.groups.get(req.group).getCode();
+            if (req.reason != null) {
+                unmet.add(new Unmet(groupCode, req.subjectCode, req.lessonsPerWeek, req.lessonsPerWeek, req.reason));
+            } else if (placed[i] < req.lessonsPerWeek) {
+                unmet.add(new Unmet(groupCode, req.subjectCode, req.lessonsPerWeek,
+                        req.lessonsPerWeek - placed[i],
+                        "Не хватило свободного времени преподавателей, группы или аудиторий"));
+            }
+        }
+
+        Map<List<Long>, Integer> lessonsTotal = new HashMap<>();
+        for (Requirement req : p.requirements) {
+            lessonsTotal.put(List.of(p.groups.get(req.group).getId(), req.subjectId), req.lessonsTotal);
+        }
+
+        return new Timetable(startDate, endDate, placements, unmet, attempts, elapsedMillis, lessonsTotal);
+    }
+
+    private static Map<Long, Integer> indexOf(List<Long> ids) {
+        Map<Long, Integer> index = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            index.put(ids.get(i), i);
+        }
+        return index;
+    }
+}
@@ -0,0 +1,77 @@
+-- Выполняется при каждом запуске после того, как Hibernate обновил таблицы
+-- (spring.jpa.defer-datasource-initialization), поэтому все команды идемпотентны.
+-- Блоки разделяются строкой "^^^ END OF SCRIPT ^^^" (spring.sql.init.separator),
+-- чтобы точки с запятой внутри DO $$ ... $$ не разрезали их.
+
+CREATE EXTENSION IF NOT EXISTS btree_gist
+^^^ END OF SCRIPT ^^^
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm
+^^^ END OF SCRIPT ^^^
+
+-- Пересечения занятий запрещены на уровне БД: один преподаватель, одна группа и одна
+-- аудитория не могут быть заняты в пересекающиеся интервалы [начало, конец).
+-- Если в старых данных уже есть пересечения, ограничение не создаётся, а в лог
+-- пишется предупреждение — после исправления данных оно появится при следующем запуске.
+DO $$
+DECLARE
+    spec record;
+BEGIN
+    FOR spec IN
+        SELECT * FROM (VALUES
+            ('ex_lessons_teacher_time', 'teacher_id'),
+            ('ex_lessons_group_time',   'group_id'),
+            ('ex_lessons_room_time',    'room_id')
+        ) AS t(name, col)
+    LOOP
+        IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = spec.name) THEN
+            BEGIN
+                EXECUTE format(
+                    'ALTER TABLE lessons ADD CONSTRAINT %I EXCLUDE USING gist ' ||
+                    '(%I WITH =, tsrange(date + start_time, date + end_time) WITH &&)',
+                    spec.name, spec.col);
+            EXCEPTION WHEN exclusion_violation THEN
+                RAISE WARNING 'Ограничение % не создано: в расписании есть пересечения', spec.name;
+            END;
+        END IF;
+    END LOOP;
+END
+$$
+^^^ END OF SCRIPT ^^^
+
+-- Поиск учеников по словам ФИО: lower(full_name) LIKE '%слово%' (StudentService.search).
+-- Триграммный GIN-индекс работает для подстрок от трёх символов.
+CREATE INDEX IF NOT EXISTS idx_students_full_name_trgm
+    ON students USING gin (lower(full_name) gin_trgm_ops)
+^^^ END OF SCRIPT ^^^
+
+-- Полнотекстовый поиск по заметкам, биографиям и описаниям (FullTextSearchService).
+-- Векторы с русской морфологией хранятся в генерируемых столбцах: пересчитываются
+-- самой БД при каждой записи строки, сущности JPA о них не знают.
+ALTER TABLE students ADD COLUMN IF NOT EXISTS notes_tsv tsvector
+    GENERATED ALWAYS AS (to_tsvector('russian', coalesce(notes, ''))) STORED
+^^^ END OF SCRIPT ^^^
+
+ALTER TABLE teachers ADD COLUMN IF NOT EXISTS bio_tsv tsvector
+    GENERATED ALWAYS AS (to_tsvector('russian', coalesce(bio, ''))) STORED
+^^^ END OF SCRIPT ^^^
+
+ALTER TABLE subjects ADD COLUMN IF NOT EXISTS description_tsv tsvector
+    GENERATED ALWAYS AS (to_tsvector('russian', coalesce(description, ''))) STORED
+^^^ END OF SCRIPT ^^^
+
+ALTER TABLE lessons ADD COLUMN IF NOT EXISTS notes_tsv tsvector
+    GENERATED ALWAYS AS (to_tsvector('russian', coalesce(notes, ''))) STORED
+^^^ END OF SCRIPT ^^^
+
+CREATE INDEX IF NOT EXISTS idx_students_notes_fts ON students USING gin (notes_tsv)
+^^^ END OF SCRIPT ^^^
+
+CREATE INDEX IF NOT EXISTS idx_teachers_bio_fts ON teachers USING gin (bio_tsv)
+^^^ END OF SCRIPT ^^^
+
+CREATE INDEX IF NOT EXISTS idx_subjects_description_fts ON subjects USING gin (description_tsv)
+^^^ END OF SCRIPT ^^^
+
+CREATE INDEX IF NOT EXISTS idx_lessons_notes_fts ON lessons USING gin (notes_tsv)
+^^^ END OF SCRIPT ^^^
@@ -0,0 +1,41 @@
+// Подсказки при вводе для полей с атрибутом data-suggest-url.
+// Выбор подсказки открывает карточку: data-detail-url + id.
+document.querySelectorAll('input[data-suggest-url]').forEach(function (input) {
+    var list = document.createElement('datalist');
+    list.id = input.name + 'Suggestions';
+    input.setAttribute('list', list.id);
+    input.setAttribute('autocomplete', 'off');
+    input.after(list);
+
+    var timer = null;
+    var hits = [];
+
+    input.addEventListener('input', function () {
+        clearTimeout(timer);
+        var q = input.value.trim();
+        if (q.length === 0) {
+            list.innerHTML = '';
+            return;
+        }
+        timer = setTimeout(function () {
+            fetch(input.dataset.suggestUrl + '?q=' + encodeURIComponent(q))
+                .then(function (r) { return r.ok ? r.json() : []; })
+                .then(function (data) {
+                    hits = data;
+                    list.innerHTML = '';
+                    data.forEach(function (hit) {
+                        var option = document.createElement('option');
+                        option.value = hit.label;
+                        list.appendChild(option);
+                    });
+                });
+        }, 120);
+    });
+
+    input.addEventListener('change', function () {
+        var hit = hits.find(function (h) { return h.label === input.value; });
+        if (hit && input.dataset.detailUrl) {
+            window.location.href = input.dataset.detailUrl + hit.id;
+        }
+    });
+});
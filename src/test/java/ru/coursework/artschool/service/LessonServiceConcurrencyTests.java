@@ -0,0 +1,223 @@
+package ru.coursework.artschool.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.coursework.artschool.model.Lesson;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Одновременные записи занятий: в один день — строго по очереди и без двойных
+ * бронирований, в разные дни — не ждут друг друга.
+ * <p>
+ * Запуск: mvn test -Dconcurrency=true -Dtest=LessonServiceConcurrencyTests
+ * (нужна та же PostgreSQL, что и для контекста приложения). Записи идут в настоящих
+ * транзакциях (иначе блокировки не проверить), поэтому тест сам удаляет свои данные;
+ * даты взяты в далёком будущем, чтобы не пересекаться с рабочим расписанием.
+ * По умолчанию выключен, как и ReportServiceBenchmarkTests: обычный mvn test
+ * не должен писать в базу разработки.
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "concurrency", matches = "true")
+class LessonServiceConcurrencyTests {
+
+    private static final int THREADS = 8;
+    private static final int ROUNDS = 20;
+    private static final LocalTime START = LocalTime.of(10, 0);
+    private static final LocalTime END = START.plus(LessonService.LESSON_DURATION);
+
+    @Autowired
+    private LessonService lessonService;
+
+    @Autowired
+    private LessonDateLocks dateLocks;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private String tag;
+    private long subjectId;
+    private long teacherId;
+    private final List<Long> groupIds = new ArrayList<>();
+    private final List<Long> roomIds = new ArrayList<>();
+    private LocalDate firstDay;
+
+    @BeforeEach
+    void createFixture() {
+        tag = UUID.randomUUID().toString().substring(0, 8);
+        firstDay = LocalDate.of(2200, 1, 1).plusDays(ThreadLocalRandom.current().nextInt(10_000));
+
+        subjectId = insertReturningId("insert into subjects (code, name) values (?, ?) returning id",
+                "C" + tag, "Конкурентность");
+        teacherId = insertReturningId(
+                "insert into teachers (full_name, specialization) values (?, ?) returning id",
+                "Преподаватель " + tag, "Конкурентность");
+        for (int i = 0; i < THREADS; i++) {
+            groupIds.add(insertReturningId("insert into groups (code, name) values (?, ?) returning id",
+                    "C" + tag + "-G" + i, "Конкурентность " + i));
+            roomIds.add(insertReturningId("insert into rooms (code) values (?) returning id",
+                    "C" + tag + "-R" + i));
+        }
+    }
+
+    @AfterEach
+    void deleteFixture() {
+        jdbcTemplate.update("delete from lessons where teacher_id = ?", teacherId);
+        for (int i = 0; i < THREADS; i++) {
+            jdbcTemplate.update("delete from lessons where group_id = ? or room_id = ?",
+                    groupIds.get(i), roomIds.get(i));
+            jdbcTemplate.update("delete from groups where id = ?", groupIds.get(i));
+            jdbcTemplate.update("delete from rooms where id = ?", roomIds.get(i));
+        }
+        jdbcTemplate.update("delete from teachers where id = ?", teacherId);
+        jdbcTemplate.update("delete from subjects where id = ?", subjectId);
+    }
+
+    // Все потоки одновременно ставят одного преподавателя на одно время
+    // (группы и аудитории разные) — успевает ровно один, остальные получают конфликт.
+    @Test
+    void sameSlotIsBookedOnce() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                LocalDate date = firstDay.plusDays(round);
+                CyclicBarrier start = new CyclicBarrier(THREADS);
+                AtomicInteger created = new AtomicInteger();
+                AtomicInteger conflicts = new AtomicInteger();
+
+                List<Future<?>> futures = new ArrayList<>();
+                for (int t = 0; t < THREADS; t++) {
+                    int thread = t;
+                    futures.add(pool.submit(() -> {
+                        start.await();
+                        try {
+                            lessonService.create(lesson(date), subjectId,
+                                    groupIds.get(thread), teacherId, roomIds.get(thread));
+                            created.incrementAndGet();
+                        } catch (IllegalArgumentException ex) {
+                            conflicts.incrementAndGet();
+                        }
+                        return null;
+                    }));
+                }
+                for (Future<?> f : futures) {
+                    f.get(30, TimeUnit.SECONDS);
+                }
+
+                assertEquals(1, created.get(), "дата " + date);
+                assertEquals(THREADS - 1, conflicts.get(), "дата " + date);
+                assertEquals(1, countTeacherLessons(date), "дата " + date);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    // Каждый поток пишет в свой день — все записи проходят, двойных нет.
+    @Test
+    void differentDaysAreAllBooked() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            CyclicBarrier start = new CyclicBarrier(THREADS);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int thread = t;
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    for (int round = 0; round < ROUNDS; round++) {
+                        LocalDate date = firstDay.plusDays((long) round * THREADS + thread);
+                        lessonService.create(lesson(date), subjectId,
+                                groupIds.get(thread), teacherId, roomIds.get(thread));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> f : futures) {
+                f.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        for (int i = 0; i < THREADS * ROUNDS; i++) {
+            assertEquals(1, countTeacherLessons(firstDay.plusDays(i)));
+        }
+    }
+
+    // Пока одна транзакция держит день, запись в другой день проходит,
+    // а запись в тот же день ждёт её коммита.
+    @Test
+    void lockOnOneDayDoesNotBlockAnother() throws Exception {
+        LocalDate busyDay = firstDay;
+        LocalDate freeDay = firstDay.plusDays(1);
+
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> holder = pool.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+                dateLocks.lockDates(List.of(busyDay));
+                locked.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            assertTrue(locked.await(10, TimeUnit.SECONDS));
+
+            lessonService.create(lesson(freeDay), subjectId, groupIds.get(0), teacherId, roomIds.get(0));
+
+            Future<?> blocked = pool.submit(() -> lessonService.create(lesson(busyDay), subjectId,
+                    groupIds.get(1), teacherId, roomIds.get(1)));
+            assertThrows(TimeoutException.class, () -> blocked.get(500, TimeUnit.MILLISECONDS));
+
+            release.countDown();
+            holder.get(10, TimeUnit.SECONDS);
+            blocked.get(10, TimeUnit.SECONDS);
+        } finally {
+            release.countDown();
+            pool.shutdownNow();
+        }
+
+        assertEquals(1, countTeacherLessons(freeDay));
+        assertEquals(1, countTeacherLessons(busyDay));
+    }
+
+    private static Lesson lesson(LocalDate date) {
+        Lesson lesson = new Lesson();
+        lesson.setDate(date);
+        lesson.setStartTime(START);
+        lesson.setEndTime(END);
+        return lesson;
+    }
+
+    private int countTeacherLessons(LocalDate date) {
+        Integer count = jdbcTemplate.queryForObject(
+                "select count(*) from lessons where teacher_id = ? and date = ?",
+                Integer.class, teacherId, java.sql.Date.valueOf(date));
+        return count != null ? count : 0;
+    }
+
+    private long insertReturningId(String sql, Object... args) {
+        Long id = jdbcTemplate.queryForObject(sql, Long.class, args);
+        return id != null ? id : -1L;
+    }
+}
@@ -0,0 +1,246 @@
+package ru.coursework.artschool.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Сравнение снимка getReportSnapshot() с прямым подсчётом по таблице grades
+ * (агрегатные SQL-запросы теста) на 10k, 100k и 1M оценок: совпадение результатов
+ * и время обоих путей.
+ * <p>
+ * Запуск: mvn test -Dbenchmark=true -Dtest=ReportServiceBenchmarkTests
+ * (нужна та же PostgreSQL, что и для контекста приложения; все данные
+ * создаются в транзакции теста и откатываются).
+ * <p>
+ * Снимок читает накопительные агрегаты, поэтому время их пересчёта после
+ * вставки оценок в замер не входит.
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ReportServiceBenchmarkTests {
+
+    private static final int GROUPS = 20;
+    private static final int STUDENTS_PER_GROUP = 25;
+    private static final int SUBJECTS = 5;
+    private static final int[] GRADE_TARGETS = {10_000, 100_000, 1_000_000};
+
+    private static final int WARMUP_RUNS = 3;
+    private static final int MEASURED_RUNS = 10;
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private GradeAggregateService gradeAggregateService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Эталон: то же, что показывает страница отчётов, посчитанное прямо по оценкам
+    private static final String OVERALL_AVERAGE_SQL = "select avg(value) from grades";
+
+    private static final String GROUP_STATS_SQL = """
+            select gr.id,
+                   (select count(*) from students s where s.group_id = gr.id) as student_count,
+                   (select avg(g.value) from grades g join lessons l on l.id = g.lesson_id
+                     where l.group_id = gr.id) as average
+              from groups gr
+            """;
+
+    private static final String SUBJECT_AVERAGES_SQL = """
+            select l.subject_id, avg(g.value) as average
+              from grades g
+              join lessons l on l.id = g.lesson_id
+             group by l.subject_id
+            """;
+
+    private static class Reference {
+        Double overallAverage;
+        final Map<Long, Long> studentCountByGroup = new HashMap<>();
+        final Map<Long, Double> averageByGroup = new HashMap<>();
+        final Map<Long, Double> averageBySubject = new HashMap<>();
+    }
+
+    @Test
+    @Transactional
+    void compareDirectQueriesWithSnapshot() {
+        String tag = UUID.randomUUID().toString().substring(0, 8);
+        Fixture fixture = createFixture(tag);
+
+        int lessonsPerGroup = 0;
+        for (int target : GRADE_TARGETS) {
+            // каждое занятие даёт по оценке каждому ученику группы
+            int neededPerGroup = target / (GROUPS * STUDENTS_PER_GROUP);
+            addLessonsWithGrades(fixture, lessonsPerGroup, neededPerGroup);
+            lessonsPerGroup = neededPerGroup;
+
+            // оценки вставлены напрямую в таблицу — агрегаты снимка пересчитываем
+            gradeAggregateService.rebuild();
+
+            assertSameResults();
+
+            double direct = measure(this::computeReference);
+            double snapshot = measure(reportService::getReportSnapshot);
+
+            System.out.printf("grades=%,d  direct queries: %.2f ms  snapshot: %.2f ms%n",
+                    target, direct, snapshot);
+        }
+    }
+
+    private Reference computeReference() {
+        Reference ref = new Reference();
+        ref.overallAverage = jdbcTemplate.queryForObject(OVERALL_AVERAGE_SQL, Double.class);
+        jdbcTemplate.query(GROUP_STATS_SQL, rs -> {
+            long groupId = rs.getLong("id");
+            ref.studentCountByGroup.put(groupId, rs.getLong("student_count"));
+            ref.averageByGroup.put(groupId, rs.getObject("average") != null ? rs.getDouble("average") : null);
+        });
+        jdbcTemplate.query(SUBJECT_AVERAGES_SQL, rs -> {
+            ref.averageBySubject.put(rs.getLong("subject_id"), rs.getDouble("average"));
+        });
+        return ref;
+    }
+
+    private void assertSameResults() {
+        Reference expected = computeReference();
+        ReportService.ReportSnapshot snapshot = reportService.getReportSnapshot();
+
+        assertAverage(expected.overallAverage, snapshot.getOverview().getOverallAverageGrade(), "общий средний балл");
+
+        // группы и предметы сравниваются по id: порядок строк эталона не задан
+        assertEquals(expected.studentCountByGroup.size(), snapshot.getGroupStats().size());
+        for (ReportService.GroupStudentStats actual : snapshot.getGroupStats()) {
+            Long groupId = actual.getGroup().getId();
+            assertTrue(expected.studentCountByGroup.containsKey(groupId), "группа " + groupId);
+            assertEquals(expected.studentCountByGroup.get(groupId).longValue(), actual.getStudentCount(), "группа " + groupId);
+            assertAverage(expected.averageByGroup.get(groupId), actual.getAverageGrade(), "группа " + groupId);
+        }
+
+        assertEquals(expected.averageBySubject.size(), snapshot.getSubjectStats().size());
+        for (ReportService.SubjectAverageStats actual : snapshot.getSubjectStats()) {
+            Long subjectId = actual.getSubject().getId();
+            assertAverage(expected.averageBySubject.get(subjectId), actual.getAverageGrade(),
+                    "дисциплина " + subjectId);
+        }
+    }
+
+    // среднее может отсутствовать (нет оценок) — тогда и у снимка его быть не должно
+    private static void assertAverage(Double expected, Double actual, String what) {
+        if (expected == null) {
+            assertNull(actual, what);
+        } else {
+            assertNotNull(actual, what);
+            assertEquals(expected, actual, 1e-9, what);
+        }
+    }
+
+    private double measure(Runnable action) {
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            action.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            action.run();
+        }
+        return (System.nanoTime() - start) / 1_000_000.0 / MEASURED_RUNS;
+    }
+
+    // ===== Подготовка данных =====
+
+    private static class Fixture {
+        final List<Long> subjectIds = new ArrayList<>();
+        final List<Long> groupIds = new ArrayList<>();
+        final List<Long> teacherIds = new ArrayList<>();
+        final List<Long> roomIds = new ArrayList<>();
+        final List<List<Long>> studentIdsByGroup = new ArrayList<>();
+    }
+
+    private Fixture createFixture(String tag) {
+        Fixture f = new Fixture();
+
+        for (int s = 0; s < SUBJECTS; s++) {
+            f.subjectIds.add(insertReturningId(
+                    "insert into subjects (code, name) values (?, ?) returning id",
+                    "B" + tag + "-S" + s, "Бенчмарк " + s));
+        }
+
+        for (int g = 0; g < GROUPS; g++) {
+            // у каждой группы свой преподаватель и аудитория — занятия не пересекаются
+            f.teacherIds.add(insertReturningId(
+                    "insert into teachers (full_name, specialization) values (?, ?) returning id",
+                    "Преподаватель " + tag + "-" + g, "Бенчмарк"));
+            f.roomIds.add(insertReturningId(
+                    "insert into rooms (code) values (?) returning id",
+                    "B" + tag + "-R" + g));
+            long groupId = insertReturningId(
+                    "insert into groups (code, name) values (?, ?) returning id",
+                    "B" + tag + "-G" + g, "Бенчмарк " + g);
+            f.groupIds.add(groupId);
+
+            List<Long> students = new ArrayList<>();
+            for (int st = 0; st < STUDENTS_PER_GROUP; st++) {
+                students.add(insertReturningId(
+                        "insert into students (full_name, group_id) values (?, ?) returning id",
+                        "Ученик " + tag + "-" + g + "-" + st, groupId));
+            }
+            f.studentIdsByGroup.add(students);
+        }
+        return f;
+    }
+
+    private void addLessonsWithGrades(Fixture f, int fromIndex, int toIndex) {
+        LocalDate firstDay = LocalDate.of(2000, 1, 1);
+
+        for (int g = 0; g < GROUPS; g++) {
+            List<Object[]> gradeRows = new ArrayList<>();
+
+            for (int i = fromIndex; i < toIndex; i++) {
+                LocalDate date = firstDay.plusDays(i);
+                long lessonId = insertReturningId(
+                        "insert into lessons (date, start_time, end_time, subject_id, group_id, teacher_id, room_id) " +
+                                "values (?, ?, ?, ?, ?, ?, ?) returning id",
+                        Date.valueOf(date),
+                        Time.valueOf(LocalTime.of(9, 0)),
+                        Time.valueOf(LocalTime.of(10, 30)),
+                        f.subjectIds.get(i % SUBJECTS),
+                        f.groupIds.get(g),
+                        f.teacherIds.get(g),
+                        f.roomIds.get(g));
+
+                List<Long> students = f.studentIdsByGroup.get(g);
+                for (int st = 0; st < students.size(); st++) {
+                    gradeRows.add(new Object[]{students.get(st), lessonId, 1 + (st + i) % 5});
+                }
+            }
+
+            jdbcTemplate.batchUpdate(
+                    "insert into grades (student_id, lesson_id, value, created_at, updated_at) " +
+                            "values (?, ?, ?, now(), now())",
+                    gradeRows);
+        }
+    }
+
+    private long insertReturningId(String sql, Object... args) {
+        Long id = jdbcTemplate.queryForObject(sql, Long.class, args);
+        return id != null ? id : -1L;
+    }
+}